@@ -0,0 +1,68 @@
+package DTOs;
+
+import artifacts.Painting;
+
+/**
+ * String content of the auction messages.
+ * The painting is described once, in the PAINTING parameter of the start-of-auction INFORM, as its fields
+ * separated by tabs. A CFP round then only carries the asking price followed by a space and the auction ID
+ * (the conversation ID of the auction), so neither side deserializes the painting again for every round.
+ * This replaces the Java serialized painting and asking price that every CFP round used to carry.
+ * */
+public final class AuctionCodec
+{
+    /**
+     * User defined parameter of the start-of-auction INFORM that holds the encoded painting
+     * */
+    public static final String PAINTING = "painting";
+
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final char PRICE_SEPARATOR = ' ';
+
+    private AuctionCodec()
+    {
+    }
+
+    public static String encodePainting(Painting painting)
+    {
+        return painting.getName() + FIELD_SEPARATOR
+                + painting.getArtist() + FIELD_SEPARATOR
+                + painting.getCenturyPainted() + FIELD_SEPARATOR
+                + painting.getSubjectMatter().name() + FIELD_SEPARATOR
+                + painting.getMedium().name() + FIELD_SEPARATOR
+                + painting.getMarketValue();
+    }
+
+    /**
+     * Decode a painting, throws IllegalArgumentException (NumberFormatException for the numbers) if malformed
+     * */
+    public static Painting decodePainting(String content)
+    {
+        String[] fields = content.split(String.valueOf(FIELD_SEPARATOR), -1);
+        if (fields.length != 6)
+            throw new IllegalArgumentException("Malformed painting: " + content);
+
+        return new Painting(
+                fields[0],
+                fields[1],
+                Integer.parseInt(fields[2]),
+                Painting.SubjectMatter.valueOf(fields[3]),
+                Painting.PaintingMedium.valueOf(fields[4]),
+                Integer.parseInt(fields[5])
+        );
+    }
+
+    public static String encodeBidRequest(String auctionId, int askingPrice)
+    {
+        return String.valueOf(askingPrice) + PRICE_SEPARATOR + auctionId;
+    }
+
+    /**
+     * Get the asking price of a CFP round, throws NumberFormatException if malformed
+     * */
+    public static int decodeAskingPrice(String content)
+    {
+        int separator = content.indexOf(PRICE_SEPARATOR);
+        return Integer.parseInt(separator < 0 ? content : content.substring(0, separator));
+    }
+}
@@ -1,31 +1,137 @@
 package agents;
 
-import DTOs.BidRequestDTO;
+import DTOs.AuctionCodec;
 import artifacts.Painting;
+import artifacts.PaintingCatalogue;
 import jade.core.AID;
 import jade.core.Agent;
 import jade.core.behaviours.*;
 import jade.domain.DFService;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.SearchConstraints;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
 import jade.domain.FIPAException;
 import jade.domain.FIPANames;
 import jade.lang.acl.ACLMessage;
-import jade.lang.acl.UnreadableException;
 import jade.proto.ContractNetInitiator;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Vector;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class ArtistManagerAgent extends Agent
 {
+    /**
+     * Dutch: the asking price is lowered round by round until a bidder accepts it.
+     * First-price and second-price are sealed-bid: every bidder proposes its maximum once and the highest bid wins,
+     * paying its own bid or the second highest bid (at least the reserve price).
+     * */
+    public enum AuctionType
+    {
+        DUTCH,
+        FIRST_PRICE,
+        SECOND_PRICE
+    }
+
+    /**
+     * Protocol of the CFP and the start-of-auction message of the sealed-bid auctions
+     * */
+    public static final String SEALED_BID_AUCTION = "sealed-bid-auction";
+
+    /**
+     * Bid of a sealed-bid response that is not a valid proposal
+     * */
+    static final int NO_BID = -1;
+
     private DFAgentDescription bidderServiceTemplate;
     private ArrayList<AID> bidders;
+    private AuctionType auctionType;
+    /**
+     * Number of auctions to run at the same time. With more than one the agent is an auction house,
+     * every auction is a sub-behaviour of one ParallelBehaviour in the agent thread, keyed by its conversation ID.
+     * */
+    private int auctionCount;
+    /**
+     * Maximum number of auctions of the auction house that run at the same time, the next auction starts
+     * when one ends. 1 runs the auctions back to back.
+     * */
+    private int auctionConcurrency;
+    private DecrementPolicy decrementPolicy;
+    private AuctionStatistics statistics;
 
     protected void setup()
     {
+        // Get command line arguments
+        Object[] args = getArguments();
+        String auctionType = args != null && args.length >= 1 ? (String)args[0] : "dutch";
+        String decrementPolicy = args != null && args.length >= 3 ? (String)args[2] : "fixed";
+
+        try
+        {
+            this.auctionCount = args != null && args.length >= 2 ? Integer.parseInt((String)args[1]) : 1;
+            this.auctionConcurrency = args != null && args.length >= 4
+                    ? Integer.parseInt((String)args[3])
+                    : this.auctionCount;
+        }
+        catch (NumberFormatException ex)
+        {
+            this.auctionCount = 0;
+        }
+
+        // An AuctionSimulation in the same JVM passes the statistics object it reports from
+        this.statistics = args != null && args.length >= 5 && args[4] instanceof AuctionStatistics
+                ? (AuctionStatistics)args[4]
+                : new AuctionStatistics();
+
+        if (auctionType.equals("dutch"))
+        {
+            this.auctionType = AuctionType.DUTCH;
+        }
+        else if (auctionType.equals("first-price"))
+        {
+            this.auctionType = AuctionType.FIRST_PRICE;
+        }
+        else if (auctionType.equals("second-price"))
+        {
+            this.auctionType = AuctionType.SECOND_PRICE;
+        }
+        else
+        {
+            this.auctionType = null;
+        }
+
+        if (decrementPolicy.equals("fixed"))
+        {
+            this.decrementPolicy = new FixedDecrementPolicy();
+        }
+        else if (decrementPolicy.equals("bisection"))
+        {
+            this.decrementPolicy = new BisectionDecrementPolicy();
+        }
+        else if (decrementPolicy.equals("learned"))
+        {
+            this.decrementPolicy = new LearnedDecrementPolicy();
+        }
+        else
+        {
+            this.decrementPolicy = null;
+        }
+
+        if (this.auctionType == null || this.auctionCount < 1 || this.auctionConcurrency < 1
+                || this.decrementPolicy == null)
+        {
+            System.out.println("ArtistManagerAgent: Need command line arguments on the form " +
+                    "(auctionType[,auctions[,decrementPolicy[,concurrency]]]) " +
+                    "where auction type can be either dutch, first-price or second-price, " +
+                    "auctions is the number of auctions to run (default 1), " +
+                    "the Dutch auction price decrement policy can be either fixed (default), bisection or learned " +
+                    "and concurrency is the number of auctions running at the same time (default all) " +
+                    "Example: (dutch,100,learned,10)");
+            this.statistics.finish();
+            doDelete();
+            return;
+        }
+
         this.bidders = new ArrayList<>();
 
         // Bidder service template
@@ -37,7 +143,10 @@ public class ArtistManagerAgent extends Agent
 
         this.addBehaviour(new AuctionManagementWaker(this, 5000));
 
-        System.out.println("ArtistManagerAgent " + getAID().getName() + " is ready.");
+        System.out.println("ArtistManagerAgent " + getAID().getName() + " is ready. Auction type: " + this.auctionType
+                + " - Auctions: " + this.auctionCount
+                + " - Concurrency: " + Math.min(this.auctionCount, this.auctionConcurrency)
+                + " - Decrement policy: " + decrementPolicy);
     }
 
     protected void takeDown()
@@ -54,7 +163,11 @@ public class ArtistManagerAgent extends Agent
 
         try
         {
-            DFAgentDescription[] result = DFService.search(this, this.bidderServiceTemplate);
+            // Get all bidders, the DF returns at most 100 by default
+            SearchConstraints searchConstraints = new SearchConstraints();
+            searchConstraints.setMaxResults(-1L);
+
+            DFAgentDescription[] result = DFService.search(this, this.bidderServiceTemplate, searchConstraints);
             for (int i = 0; i < result.length; ++i)
             {
                 foundBidders.add(result[i].getName());
@@ -70,6 +183,31 @@ public class ArtistManagerAgent extends Agent
         }
     }
 
+    /**
+     * Record the outcome of an auction that was won, for the auction house summary and the decrement policy
+     * */
+    private void recordSale(Painting painting, int price)
+    {
+        this.statistics.recordSale(price);
+        this.decrementPolicy.recordSale(painting, price);
+    }
+
+    /**
+     * Get the number of messages of a CFP round: the CFP and the response of every bidder,
+     * and the ACCEPT_PROPOSAL or REJECT_PROPOSAL of every proposal
+     * */
+    private static int getRoundMessageCount(Vector<ACLMessage> responses)
+    {
+        int messageCount = 2 * responses.size();
+        for (int i = 0; i < responses.size(); i++)
+        {
+            if (responses.elementAt(i).getPerformative() == ACLMessage.PROPOSE)
+                messageCount++;
+        }
+
+        return messageCount;
+    }
+
     //region Behaviours
 
     private class AuctionManagementWaker extends WakerBehaviour
@@ -82,75 +220,182 @@ public class ArtistManagerAgent extends Agent
         @Override
         protected void onWake()
         {
-            System.out.println(myAgent.getName() + " - Starting auction");
-            myAgent.addBehaviour(new AuctionManagementBehaviour(myAgent));
+            // Update bidder list, once for all the auctions
+            getBidders();
+            statistics.start();
+            statistics.setBidderCount(bidders.size());
+            if (bidders.size() == 0)
+            {
+                System.out.println(myAgent.getName() + " - There are no bidders, aborting");
+                statistics.finish();
+                return;
+            }
+
+            if (auctionCount == 1)
+            {
+                System.out.println(myAgent.getName() + " - Starting auction");
+                myAgent.addBehaviour(new AuctionManagementBehaviour(myAgent, getRandomPainting(), 0, null));
+            }
+            else
+            {
+                System.out.println(myAgent.getName() + " - Starting " + auctionCount + " auctions");
+                myAgent.addBehaviour(new AuctionHouseBehaviour(myAgent));
+            }
+        }
+    }
+
+    /**
+     * Runs up to auctionConcurrency auctions at the same time. The auctions only wait for messages of their own
+     * conversation, so a bidder that is slow to answer one auction does not hold up the others.
+     * */
+    private class AuctionHouseBehaviour extends ParallelBehaviour
+    {
+        private int nextAuctionNumber;
+
+        public AuctionHouseBehaviour(Agent agent)
+        {
+            super(agent, ParallelBehaviour.WHEN_ALL);
+
+            while (this.nextAuctionNumber < Math.min(auctionCount, auctionConcurrency))
+                startNextAuction();
+        }
+
+        /**
+         * Start the next auction, if there are any left. Called when an auction ends
+         * */
+        public void startNextAuction()
+        {
+            if (this.nextAuctionNumber < auctionCount)
+                this.addSubBehaviour(new AuctionManagementBehaviour(myAgent, getRandomPainting(), this.nextAuctionNumber++, this));
+        }
+
+        @Override
+        public int onEnd()
+        {
+            statistics.finish();
+            System.out.println(myAgent.getName() + " - Auction house done - " + statistics.getReport());
+
+            return super.onEnd();
         }
     }
 
     private class AuctionManagementBehaviour extends SequentialBehaviour
     {
-        public AuctionManagementBehaviour(Agent agent)
+        private AuctionHouseBehaviour auctionHouse;
+        private AuctionStatistics.Auction auction;
+
+        public AuctionManagementBehaviour(Agent agent, Painting painting, int auctionNumber,
+                                          AuctionHouseBehaviour auctionHouse)
         {
             super(agent);
 
-            // Update bidder list
-            getBidders();
-            if (bidders.size() == 0)
-            {
-                System.out.println(myAgent.getName()
-                        + " - AuctionManagementBehaviour - there are no bidders, aborting");
+            this.auctionHouse = auctionHouse;
+            this.auction = new AuctionStatistics.Auction();
 
-                // Abort auction
-                return;
-            }
+            // Conversation IDs are unique per auction, a painting may be auctioned in several auctions at once
+            String conversationId = "auction-" + auctionNumber + "-" + painting.getName();
 
-            // Get painting to auction off
-            Painting painting = getRandomPainting();
             System.out.println(myAgent.getName() + " - Auctioning off painting: " + painting);
 
             // Inform bidders that there is an auction starting
-            this.addSubBehaviour(new InformBiddersOfStartOfAuctionBehaviour(myAgent, painting));
+            this.addSubBehaviour(new InformBiddersOfStartOfAuctionBehaviour(myAgent, conversationId, painting, auction));
 
             // Start the auction
-            try
+            ACLMessage cfp = new ACLMessage(ACLMessage.CFP);
+            cfp.setProtocol(getAuctionProtocol());
+            cfp.setConversationId(conversationId);
+            for (AID bidder : bidders)
+                cfp.addReceiver(bidder);
+
+            if (auctionType == AuctionType.DUTCH)
             {
-                ACLMessage cfp = new ACLMessage(ACLMessage.CFP);
-                cfp.setProtocol(FIPANames.InteractionProtocol.FIPA_DUTCH_AUCTION);
-                cfp.setConversationId("auction-" + painting.getName());
-                BidRequestDTO dto = new BidRequestDTO(painting, getInitialAskingPrice(painting));
-                cfp.setContentObject(dto);
-                for (AID bidder : bidders)
-                    cfp.addReceiver(bidder);
-
-                this.addSubBehaviour(new DutchAuctionInitiator(myAgent, cfp));
+                int askingPrice = getInitialAskingPrice(painting);
+                cfp.setContent(AuctionCodec.encodeBidRequest(conversationId, askingPrice));
+                this.addSubBehaviour(new DutchAuctionInitiator(myAgent, cfp, painting, askingPrice, auction));
             }
-            catch (IOException ex)
+            else
             {
-                System.err.println(ex);
+                // Sealed-bid: the asking price is the reserve price, the lowest acceptable bid
+                int reservePrice = getReservePrice(painting);
+                cfp.setContent(AuctionCodec.encodeBidRequest(conversationId, reservePrice));
+                this.addSubBehaviour(new SealedBidAuctionInitiator(myAgent, cfp, painting, reservePrice, auction));
             }
+
+            // Let the bidders drop their responder for this auction
+            this.addSubBehaviour(new InformBiddersOfEndOfAuctionBehaviour(myAgent, conversationId, auction));
+        }
+
+        @Override
+        public int onEnd()
+        {
+            statistics.endAuction(auction);
+            if (auctionHouse != null)
+                auctionHouse.startNextAuction();
+            else
+                statistics.finish();
+
+            return super.onEnd();
         }
     }
 
     private class InformBiddersOfStartOfAuctionBehaviour extends OneShotBehaviour
     {
+        private String conversationId;
         private Painting painting;
+        private AuctionStatistics.Auction auction;
 
-        public InformBiddersOfStartOfAuctionBehaviour(Agent agent, Painting painting)
+        public InformBiddersOfStartOfAuctionBehaviour(Agent agent, String conversationId, Painting painting,
+                                                      AuctionStatistics.Auction auction)
         {
             super(agent);
+            this.conversationId = conversationId;
             this.painting = painting;
+            this.auction = auction;
         }
 
         @Override
         public void action()
         {
+            // The settlement latency is measured from here
+            statistics.startAuction(auction);
+
+            // The painting is only sent here, the CFP rounds of the auction carry just the asking price
             ACLMessage inform = new ACLMessage(ACLMessage.INFORM);
             inform.setContent("start-of-auction");
-            inform.setConversationId("auction-" + painting.getName());
+            inform.addUserDefinedParameter(AuctionCodec.PAINTING, AuctionCodec.encodePainting(painting));
+            inform.setConversationId(conversationId);
+            inform.setProtocol(getAuctionProtocol());
             for (AID bidder : bidders)
                 inform.addReceiver(bidder);
 
             myAgent.send(inform);
+            auction.addMessages(bidders.size());
+        }
+    }
+
+    private class InformBiddersOfEndOfAuctionBehaviour extends OneShotBehaviour
+    {
+        private String conversationId;
+        private AuctionStatistics.Auction auction;
+
+        public InformBiddersOfEndOfAuctionBehaviour(Agent agent, String conversationId, AuctionStatistics.Auction auction)
+        {
+            super(agent);
+            this.conversationId = conversationId;
+            this.auction = auction;
+        }
+
+        @Override
+        public void action()
+        {
+            ACLMessage inform = new ACLMessage(ACLMessage.INFORM);
+            inform.setContent("end-of-auction");
+            inform.setConversationId(conversationId);
+            for (AID bidder : bidders)
+                inform.addReceiver(bidder);
+
+            myAgent.send(inform);
+            auction.addMessages(bidders.size());
         }
     }
 
@@ -170,32 +415,54 @@ public class ArtistManagerAgent extends Agent
         and ignore all the responses and proposals that have not yet been received.
         */
 
+        // Typed state of the current round, the CFP content is only written, never read back
         private ACLMessage cfp;
+        private Painting painting;
+        private int askingPrice;
+        private int reservePrice;
         private int roundCount;
+        private int highestBid;
+        private AuctionStatistics.Auction auction;
+        // The bidders of this auction, the auctions running at the same time drop bidders independently
+        private ArrayList<AID> bidders;
 
-        public DutchAuctionInitiator(Agent a, ACLMessage cfp)
+        public DutchAuctionInitiator(Agent a, ACLMessage cfp, Painting painting, int askingPrice,
+                                     AuctionStatistics.Auction auction)
         {
             super(a, cfp);
 
             this.cfp = cfp;
+            this.painting = painting;
+            this.askingPrice = askingPrice;
+            this.reservePrice = getReservePrice(painting);
             this.roundCount = 0;
+            this.auction = auction;
+            this.bidders = new ArrayList<>(ArtistManagerAgent.this.bidders);
         }
 
         @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
         protected void handleAllResponses(Vector responses, Vector acceptances)
         {
-            // All responses have been received or the reply-by deadline has expired
-
+            // JADE declares the vectors raw, they hold ACLMessages
             super.handleAllResponses(responses, acceptances);
+            handleAllBids((Vector<ACLMessage>)responses, (Vector<ACLMessage>)acceptances);
+        }
+
+        private void handleAllBids(Vector<ACLMessage> responses, Vector<ACLMessage> acceptances)
+        {
+            // All responses have been received or the reply-by deadline has expired
 
             roundCount++;
+            auction.addRound();
+            auction.addMessages(getRoundMessageCount(responses));
 
             // Fill the acceptances vector with ACCEPT/REJECT-PROPOSAL messages
 
             System.out.println(myAgent.getName() + " - All responses received");
             for (int i = 0; i < responses.size(); i++)
             {
-                ACLMessage response = (ACLMessage)responses.elementAt(i);
+                ACLMessage response = responses.elementAt(i);
                 System.out.println(myAgent.getName() + " - " + AgentHelper.getAclMessageDisplayString(response));
             }
 
@@ -209,10 +476,10 @@ public class ArtistManagerAgent extends Agent
             }
 
             // Send reject proposal messages to all other bidders
-            // and remove the bidders that didn't understand from the list of bidders
+            // and remove the bidders that didn't understand from the bidders of this auction
             for (int i = 0; i < responses.size(); i++)
             {
-                ACLMessage response = (ACLMessage) responses.elementAt(i);
+                ACLMessage response = responses.elementAt(i);
 
                 if (response.getPerformative() == ACLMessage.PROPOSE && !response.equals(winningBid))
                 {
@@ -232,56 +499,45 @@ public class ArtistManagerAgent extends Agent
             {
                 // We do not have a winner, need another iteration with lower price
 
-                try
+                // Check if we have already gone as low as we can go
+                if (askingPrice == reservePrice)
                 {
-                    BidRequestDTO oldDTO = (BidRequestDTO)cfp.getContentObject();
-
-                    // Check if we have already gone as low as we can go
-                    if (oldDTO.askingPrice == getReservePrice(oldDTO.painting))
-                    {
-                        // We have already reached the reserve price with no luck.
-                        // Abort the auction
-                        System.out.println(myAgent.getName() + " - Auction of painting \"" + oldDTO.painting.getName()
-                                + "\" reached the reserve price: " + getReservePrice(oldDTO.painting)
-                                + " - Aborting auction."
-                        );
-                        System.out.println(myAgent.getName() + " - Auction over. Number of rounds: " + roundCount);
-                        return;
-                    }
+                    // We have already reached the reserve price with no luck.
+                    // Abort the auction
+                    System.out.println(myAgent.getName() + " - Auction of painting \"" + painting.getName()
+                            + "\" reached the reserve price: " + reservePrice
+                            + " - Aborting auction."
+                    );
+                    System.out.println(myAgent.getName() + " - Auction over. Number of rounds: " + roundCount);
+                    return;
+                }
 
-                    // Start the next iteration, if we have any bidders left
-                    if (bidders.size() > 0)
-                    {
-                        // Lower the price
-                        BidRequestDTO newDTO = new BidRequestDTO(
-                                oldDTO.painting,
-                                lowerAskingPrice(oldDTO.painting, oldDTO.askingPrice)
-                        );
-                        cfp.setContentObject(newDTO);
-
-                        // Update the bidders list
-                        cfp.clearAllReceiver();
-                        for (AID bidder : bidders)
-                            cfp.addReceiver(bidder);
-
-                        // Set up and start next iteration
-                        Vector<ACLMessage> nextIterationMessages = new Vector<>();
-                        nextIterationMessages.add(cfp);
-                        newIteration(nextIterationMessages);
-                    }
-                    else
-                    {
-                        System.out.println(myAgent.getName() + " - No bidders left. Aborting auction.");
-                        System.out.println(myAgent.getName() + " - Auction over. Number of rounds: " + roundCount);
-                    }
+                // Start the next iteration, if we have any bidders left
+                if (bidders.size() > 0)
+                {
+                    // Lower the price
+                    askingPrice = lowerAskingPrice(painting, askingPrice);
+                    cfp.setContent(AuctionCodec.encodeBidRequest(cfp.getConversationId(), askingPrice));
+
+                    // Update the bidders list
+                    cfp.clearAllReceiver();
+                    for (AID bidder : bidders)
+                        cfp.addReceiver(bidder);
+
+                    // Set up and start next iteration
+                    Vector<ACLMessage> nextIterationMessages = new Vector<>();
+                    nextIterationMessages.add(cfp);
+                    newIteration(nextIterationMessages);
                 }
-                catch (IOException|UnreadableException ex)
+                else
                 {
-                    System.err.println(ex);
+                    System.out.println(myAgent.getName() + " - No bidders left. Aborting auction.");
+                    System.out.println(myAgent.getName() + " - Auction over. Number of rounds: " + roundCount);
                 }
             }
             else
             {
+                recordSale(painting, highestBid);
                 System.out.println(myAgent.getName() + " - Auction over. Number of rounds: " + roundCount);
             }
         }
@@ -293,35 +549,49 @@ public class ArtistManagerAgent extends Agent
             System.out.println(myAgent.getName() + " - " + AgentHelper.getAclMessageDisplayString(inform));
         }
 
-        private int getCurrentAskingPrice()
+        @Override
+        @SuppressWarnings("rawtypes")
+        protected void handleAllResultNotifications(Vector resultNotifications)
         {
-            try
-            {
-                BidRequestDTO dto = (BidRequestDTO)cfp.getContentObject();
-                return dto.askingPrice;
-            }
-            catch (UnreadableException ex)
-            {
-                System.err.println(ex);
-                return 0;
-            }
+            super.handleAllResultNotifications(resultNotifications);
+            auction.addMessages(resultNotifications.size());
         }
 
+        /**
+         * Get the highest bid at or above the asking price of this round. Every bid is parsed once
+         * and compared with the asking price of the round, its amount is kept in highestBid
+         * */
         private ACLMessage getHighestAcceptableBid(Vector<ACLMessage> bids)
         {
-            ArrayList<ACLMessage> acceptableBids = getAcceptableBids(bids);
-
-            int highestBid = 0;
+            // Bids will always be integers
+            highestBid = 0;
             ACLMessage highestBidMessage = null;
 
-            for (ACLMessage acceptableBid : acceptableBids)
+            for (int i = 0; i < bids.size(); i++)
             {
-                int bidAmount = Integer.parseInt(acceptableBid.getContent());
+                ACLMessage bid = bids.elementAt(i);
+
+                if (bid.getPerformative() != ACLMessage.PROPOSE)
+                    continue;
 
-                if (bidAmount > highestBid)
+                try
+                {
+                    int bidAmount = Integer.parseInt(bid.getContent());
+
+                    System.out.println(myAgent.getName()
+                            + " - Received bid from " + bid.getSender().getName()
+                            + " for " + bidAmount
+                    );
+
+                    if (bidAmount >= askingPrice && bidAmount > highestBid)
+                    {
+                        highestBid = bidAmount;
+                        highestBidMessage = bid;
+                    }
+                }
+                catch (NumberFormatException ex)
                 {
-                    highestBid = bidAmount;
-                    highestBidMessage = acceptableBid;
+                    System.err.println(ex);
                 }
             }
 
@@ -329,7 +599,7 @@ public class ArtistManagerAgent extends Agent
             {
                 System.out.println(myAgent.getName()
                         + " - Highest acceptable bid (winning bid): "
-                        + highestBidMessage.getContent() + " from " + highestBidMessage.getSender().getName()
+                        + highestBid + " from " + highestBidMessage.getSender().getName()
                 );
             }
             else
@@ -339,58 +609,178 @@ public class ArtistManagerAgent extends Agent
 
             return highestBidMessage;
         }
+    }
 
-        private ArrayList<ACLMessage> getAcceptableBids(Vector<ACLMessage> bids)
+    /**
+     * Sealed-bid auction, settled in a single CFP round: the highest bid at or above the reserve price wins.
+     * The winner pays its own bid in a first-price auction, and the second highest bid (or the reserve price
+     * if it was the only acceptable bid) in a second-price auction.
+     * */
+    private class SealedBidAuctionInitiator extends ContractNetInitiator
+    {
+        private Painting painting;
+        private int reservePrice;
+        private AuctionStatistics.Auction auction;
+
+        public SealedBidAuctionInitiator(Agent a, ACLMessage cfp, Painting painting, int reservePrice,
+                                         AuctionStatistics.Auction auction)
         {
-            // We accept bids that match the asking price
-            // Bids will always be integers
+            super(a, cfp);
 
-            ArrayList<ACLMessage> acceptableBids = new ArrayList<>();
+            this.painting = painting;
+            this.reservePrice = reservePrice;
+            this.auction = auction;
+        }
 
-            for (int i = 0; i < bids.size(); i++)
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        protected void handleAllResponses(Vector responses, Vector acceptances)
+        {
+            // JADE declares the vectors raw, they hold ACLMessages
+            super.handleAllResponses(responses, acceptances);
+            handleAllBids((Vector<ACLMessage>)responses, (Vector<ACLMessage>)acceptances);
+        }
+
+        private void handleAllBids(Vector<ACLMessage> responses, Vector<ACLMessage> acceptances)
+        {
+            auction.addRound();
+            auction.addMessages(getRoundMessageCount(responses));
+
+            System.out.println(myAgent.getName() + " - All sealed bids received");
+
+            int[] bids = new int[responses.size()];
+            for (int i = 0; i < responses.size(); i++)
             {
-                ACLMessage bid = bids.elementAt(i);
+                ACLMessage response = responses.elementAt(i);
+                System.out.println(myAgent.getName() + " - " + AgentHelper.getAclMessageDisplayString(response));
+
+                bids[i] = NO_BID;
+                if (response.getPerformative() != ACLMessage.PROPOSE)
+                    continue;
 
-                if (bid.getPerformative() == ACLMessage.PROPOSE)
+                try
                 {
-                    try
-                    {
-                        int bidAmount = Integer.parseInt(bid.getContent());
+                    bids[i] = Integer.parseInt(response.getContent());
+                }
+                catch (NumberFormatException ex)
+                {
+                    System.err.println(ex);
+                }
+            }
 
-                        System.out.println(myAgent.getName()
-                                + " - Received bid from " + bid.getSender().getName()
-                                + " for " + bidAmount
-                        );
+            int[] settlement = settleSealedBids(bids, reservePrice, auctionType);
+            ACLMessage winningBid = settlement == null ? null : responses.elementAt(settlement[0]);
 
-                        if (bidAmount >= getCurrentAskingPrice())
-                            acceptableBids.add(bid);
-                    }
-                    catch (NumberFormatException ex)
-                    {
-                        System.err.println(ex);
-                    }
+            // Send reject proposal messages to all other bidders
+            for (int i = 0; i < responses.size(); i++)
+            {
+                ACLMessage response = responses.elementAt(i);
+
+                if (response.getPerformative() == ACLMessage.PROPOSE && !response.equals(winningBid))
+                {
+                    ACLMessage reply = response.createReply();
+                    reply.setPerformative(ACLMessage.REJECT_PROPOSAL);
+                    acceptances.add(reply);
                 }
             }
 
-            return acceptableBids;
+            if (winningBid == null)
+            {
+                System.out.println(myAgent.getName() + " - No bid reached the reserve price: " + reservePrice
+                        + " - Aborting auction.");
+                System.out.println(myAgent.getName() + " - Auction over. Number of rounds: 1");
+                return;
+            }
+
+            int highestBid = settlement[1];
+            int price = settlement[2];
+
+            ACLMessage reply = winningBid.createReply();
+            reply.setPerformative(ACLMessage.ACCEPT_PROPOSAL);
+            reply.setContent(String.valueOf(price));
+            acceptances.add(reply);
+            recordSale(painting, price);
+
+            System.out.println(myAgent.getName()
+                    + " - Highest bid (winning bid): " + highestBid + " from " + winningBid.getSender().getName()
+                    + " - Price: " + price
+            );
+            System.out.println(myAgent.getName() + " - Auction over. Number of rounds: 1");
+        }
+
+        @Override
+        protected void handleInform(ACLMessage inform)
+        {
+            super.handleInform(inform);
+            System.out.println(myAgent.getName() + " - " + AgentHelper.getAclMessageDisplayString(inform));
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        protected void handleAllResultNotifications(Vector resultNotifications)
+        {
+            super.handleAllResultNotifications(resultNotifications);
+            auction.addMessages(resultNotifications.size());
         }
     }
 
     //endregion
 
+    /**
+     * Settle a sealed-bid round. The bids are in the order they arrived, NO_BID for a response that is not a valid
+     * proposal. The highest bid at or above the reserve price wins, the first one if several bids are equal.
+     * The winner pays its own bid in a first-price auction, and the second highest bid, at least the reserve price,
+     * in a second-price auction.
+     * Returns {index of the winning bid, highest bid, price}, null if no bid reached the reserve price
+     * */
+    static int[] settleSealedBids(int[] bids, int reservePrice, AuctionType auctionType)
+    {
+        int winningIndex = -1;
+        int highestBid = 0;
+        int secondHighestBid = reservePrice;
+
+        for (int i = 0; i < bids.length; i++)
+        {
+            int bidAmount = bids[i];
+            if (bidAmount == NO_BID || bidAmount < reservePrice)
+                continue;
+
+            if (winningIndex < 0 || bidAmount > highestBid)
+            {
+                if (winningIndex >= 0)
+                    secondHighestBid = highestBid;
+
+                highestBid = bidAmount;
+                winningIndex = i;
+            }
+            else if (bidAmount > secondHighestBid)
+            {
+                secondHighestBid = bidAmount;
+            }
+        }
+
+        if (winningIndex < 0)
+            return null;
+
+        int price = auctionType == AuctionType.FIRST_PRICE ? highestBid : secondHighestBid;
+        return new int[] { winningIndex, highestBid, price };
+    }
+
+    private String getAuctionProtocol()
+    {
+        return this.auctionType == AuctionType.DUTCH
+                ? FIPANames.InteractionProtocol.FIPA_DUTCH_AUCTION
+                : SEALED_BID_AUCTION;
+    }
+
     private int getInitialAskingPrice(Painting painting)
     {
-        return painting.getMarketValue() * 2;
+        return this.decrementPolicy.getInitialAskingPrice(painting, getReservePrice(painting));
     }
 
     private int lowerAskingPrice(Painting painting, int currentAskingPrice)
     {
-        int reservePrice = getReservePrice(painting);
-        int newPrice = (int)(currentAskingPrice * 0.9);
-        if (newPrice < reservePrice)
-            newPrice = reservePrice;
-
-        return newPrice;
+        return this.decrementPolicy.lowerAskingPrice(painting, currentAskingPrice, getReservePrice(painting));
     }
 
     /**
@@ -403,7 +793,6 @@ public class ArtistManagerAgent extends Agent
 
     private Painting getRandomPainting()
     {
-        ArrayList<Painting> paintings = AgentHelper.generatePaintings();
-        return paintings.get(ThreadLocalRandom.current().nextInt(paintings.size()));
+        return PaintingCatalogue.getDefault().getRandomPainting(ThreadLocalRandom.current());
     }
 }
@@ -0,0 +1,121 @@
+package agents;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of the auctions of an auction house: sales, rounds and ACL messages per auction
+ * and the settlement latency, from sending the start-of-auction message to the end of the auction.
+ * Written by the agent thread of the ArtistManagerAgent, read by the AuctionSimulation after awaitDone.
+ * */
+public class AuctionStatistics
+{
+    /**
+     * Counters of one auction, updated by the behaviours of the auction
+     * */
+    public static class Auction
+    {
+        private long startNanos;
+        private int rounds;
+        private int messages;
+
+        public void addRound()
+        {
+            this.rounds++;
+        }
+
+        public void addMessages(int messages)
+        {
+            this.messages += messages;
+        }
+    }
+
+    private long[] latencyNanos = new long[16];
+    private int bidderCount;
+    private int auctionCount;
+    private int soldCount;
+    private long revenue;
+    private long totalRounds;
+    private long totalMessages;
+    private long startNanos;
+    private long endNanos;
+    private CountDownLatch done = new CountDownLatch(1);
+
+    public void start()
+    {
+        this.startNanos = System.nanoTime();
+    }
+
+    public void setBidderCount(int bidderCount)
+    {
+        this.bidderCount = bidderCount;
+    }
+
+    /**
+     * Called when the start-of-auction message is sent
+     * */
+    public void startAuction(Auction auction)
+    {
+        auction.startNanos = System.nanoTime();
+    }
+
+    public void endAuction(Auction auction)
+    {
+        if (auctionCount == latencyNanos.length)
+            latencyNanos = Arrays.copyOf(latencyNanos, auctionCount * 2);
+
+        latencyNanos[auctionCount++] = System.nanoTime() - auction.startNanos;
+        totalRounds += auction.rounds;
+        totalMessages += auction.messages;
+    }
+
+    public void recordSale(int price)
+    {
+        this.soldCount++;
+        this.revenue += price;
+    }
+
+    public void finish()
+    {
+        this.endNanos = System.nanoTime();
+        this.done.countDown();
+    }
+
+    /**
+     * Wait until the auction house is done, false on timeout
+     * */
+    public boolean awaitDone(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return this.done.await(timeout, unit);
+    }
+
+    public String getReport()
+    {
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos));
+        int auctions = Math.max(1, auctionCount);
+
+        long[] sortedLatencies = Arrays.copyOf(latencyNanos, auctionCount);
+        Arrays.sort(sortedLatencies);
+
+        return "Bidders: " + bidderCount
+                + " - Auctions: " + auctionCount
+                + " - Sold: " + soldCount
+                + " - Revenue: " + revenue
+                + " - Time: " + elapsedMillis + " ms"
+                + " - Auctions per second: " + String.format("%.2f", auctionCount * 1000.0 / elapsedMillis)
+                + " - Rounds per auction: " + String.format("%.2f", (double)totalRounds / auctions)
+                + " - Messages per auction: " + String.format("%.1f", (double)totalMessages / auctions)
+                + " - Settlement latency p50: " + getPercentileMillis(sortedLatencies, 0.50) + " ms"
+                + " - p99: " + getPercentileMillis(sortedLatencies, 0.99) + " ms";
+    }
+
+    private static String getPercentileMillis(long[] sortedNanos, double percentile)
+    {
+        if (sortedNanos.length == 0)
+            return "-";
+
+        int index = (int)Math.ceil(percentile * sortedNanos.length) - 1;
+        return String.format("%.1f", sortedNanos[Math.max(0, index)] / 1e6);
+    }
+}
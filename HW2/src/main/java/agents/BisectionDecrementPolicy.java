@@ -0,0 +1,16 @@
+package agents;
+
+import artifacts.Painting;
+
+/**
+ * Start at twice the market value and halve the distance to the reserve price every round.
+ * Large steps while the price is far above what bidders pay, small steps close to the reserve price.
+ * */
+public class BisectionDecrementPolicy extends FixedDecrementPolicy
+{
+    @Override
+    public int lowerAskingPrice(Painting painting, int currentAskingPrice, int reservePrice)
+    {
+        return Math.max(reservePrice, reservePrice + (currentAskingPrice - reservePrice) / 2);
+    }
+}
@@ -1,7 +1,8 @@
 package agents;
 
-import DTOs.BidRequestDTO;
+import DTOs.AuctionCodec;
 import artifacts.Painting;
+import artifacts.PaintingCatalogue;
 import jade.core.Agent;
 import jade.core.behaviours.CyclicBehaviour;
 import jade.domain.DFService;
@@ -10,10 +11,12 @@ import jade.domain.FIPAException;
 import jade.domain.FIPANames;
 import jade.lang.acl.ACLMessage;
 import jade.lang.acl.MessageTemplate;
-import jade.lang.acl.UnreadableException;
 import jade.proto.ContractNetResponder;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 
 public class CuratorAgent extends Agent
@@ -25,19 +28,38 @@ public class CuratorAgent extends Agent
         AGGRESSIVE
     }
 
-    private ArrayList<Painting.SubjectMatter> subjectMatterInterests;
-    private ArrayList<Painting.PaintingMedium> paintingMediumInterests;
-    private ArrayList<String> artistInterests;
+    private EnumSet<Painting.SubjectMatter> subjectMatterInterests;
+    private EnumSet<Painting.PaintingMedium> paintingMediumInterests;
+    private HashSet<String> artistInterests;
     private BiddingStrategy biddingStrategy;
+    /**
+     * Seed of the painting interests, so that simulations can be repeated. Null for random interests
+     * */
+    private Long interestSeed;
+    /**
+     * The responders of the auctions that are running, keyed by conversation ID.
+     * An auction house runs many auctions at once, each gets its own responder until its end-of-auction message.
+     * */
+    private HashMap<String, BidRequestResponder> bidRequestResponders = new HashMap<>();
 
     protected void setup()
     {
         // Get command line arguments
         Object[] args = getArguments();
-        if (args != null && args.length == 1)
+        if (args != null && (args.length == 1 || args.length == 2))
         {
             String biddingStrategy = (String)args[0];
 
+            try
+            {
+                this.interestSeed = args.length == 2 ? Long.valueOf((String)args[1]) : null;
+            }
+            catch (NumberFormatException ex)
+            {
+                invalidCommandLineArguments();
+                return;
+            }
+
             if(biddingStrategy.equals("passive"))
             {
                 this.biddingStrategy = BiddingStrategy.PASSIVE;
@@ -76,8 +98,9 @@ public class CuratorAgent extends Agent
 
     private void invalidCommandLineArguments()
     {
-        System.out.println("CuratorAgent: Need command line arguments on the form (biddingStrategy) " +
-                "where bidding strategy can be either passive or aggressive " +
+        System.out.println("CuratorAgent: Need command line arguments on the form (biddingStrategy[,seed]) " +
+                "where bidding strategy can be either passive, medium or aggressive " +
+                "and seed is an optional seed of the painting interests " +
                 "Example: (aggressive)");
 
         // Terminate agent
@@ -120,10 +143,10 @@ public class CuratorAgent extends Agent
     {
         // Add subject matter and painting medium interests
 
-        this.subjectMatterInterests = new ArrayList<>();
-        this.paintingMediumInterests = new ArrayList<>();
+        this.subjectMatterInterests = EnumSet.noneOf(Painting.SubjectMatter.class);
+        this.paintingMediumInterests = EnumSet.noneOf(Painting.PaintingMedium.class);
 
-        Random random = new Random();
+        Random random = this.interestSeed != null ? new Random(this.interestSeed) : new Random();
         switch (random.nextInt(8))
         {
             case 0:
@@ -169,25 +192,24 @@ public class CuratorAgent extends Agent
 
         // Add artist interests
 
-        this.artistInterests = new ArrayList<>();
+        this.artistInterests = new HashSet<>();
 
-        ArrayList<String> artists = AgentHelper.getAllArtists();
+        List<String> artists = PaintingCatalogue.getDefault().getArtists();
         String randomArtist;
 
         // Let's make him interested in up to 2 artists
         randomArtist = artists.get(random.nextInt(artists.size()));
-        if (!this.artistInterests.contains(randomArtist))
-            this.artistInterests.add(randomArtist);
+        this.artistInterests.add(randomArtist);
         randomArtist = artists.get(random.nextInt(artists.size()));
-        if (!this.artistInterests.contains(randomArtist))
-            this.artistInterests.add(randomArtist);
+        this.artistInterests.add(randomArtist);
     }
 
     //region Behaviours
 
     /**
      * A Cycle behaviour that waits for a "start-of-auction" INFORM message, picks up the conversation id
-     * for the auction and then adds a BidRequestResponderBehaviour to participate in the auction
+     * for the auction and then adds a BidRequestResponderBehaviour to participate in the auction.
+     * The responder is removed again on the "end-of-auction" INFORM of the same conversation.
      */
     private class WaitForAuction extends CyclicBehaviour
     {
@@ -203,19 +225,46 @@ public class CuratorAgent extends Agent
                 if (content.equals("start-of-auction"))
                 {
                     String conversationId = msg.getConversationId();
+                    String protocol = msg.getProtocol() != null
+                            ? msg.getProtocol()
+                            : FIPANames.InteractionProtocol.FIPA_DUTCH_AUCTION;
 
                     System.out.println(myAgent.getName() + " - Received start of auction message with conversation ID: "
                             + conversationId);
 
-                    addBehaviour(
-                            new BidRequestResponder(
-                                    myAgent,
-                                    MessageTemplate.and(
-                                            MessageTemplate.MatchProtocol(FIPANames.InteractionProtocol.FIPA_DUTCH_AUCTION),
-                                            MessageTemplate.MatchConversationId(conversationId)
-                                    )
+                    if (bidRequestResponders.containsKey(conversationId))
+                        return;
+
+                    // The painting is only described here, not in every CFP round.
+                    // Without it the responder answers NOT_UNDERSTOOD, so the auctioneer stops asking this agent
+                    Painting painting = null;
+                    String encodedPainting = msg.getUserDefinedParameter(AuctionCodec.PAINTING);
+                    try
+                    {
+                        if (encodedPainting != null)
+                            painting = AuctionCodec.decodePainting(encodedPainting);
+                    }
+                    catch (IllegalArgumentException ex)
+                    {
+                        System.err.println(ex);
+                    }
+
+                    BidRequestResponder responder = new BidRequestResponder(
+                            myAgent,
+                            painting,
+                            MessageTemplate.and(
+                                    MessageTemplate.MatchProtocol(protocol),
+                                    MessageTemplate.MatchConversationId(conversationId)
                             )
                     );
+                    bidRequestResponders.put(conversationId, responder);
+                    addBehaviour(responder);
+                }
+                else if (content.equals("end-of-auction"))
+                {
+                    BidRequestResponder responder = bidRequestResponders.remove(msg.getConversationId());
+                    if (responder != null)
+                        removeBehaviour(responder);
                 }
             }
             else
@@ -227,9 +276,21 @@ public class CuratorAgent extends Agent
 
     private class BidRequestResponder extends ContractNetResponder
     {
-        public BidRequestResponder(Agent agent, MessageTemplate mt)
+        private Painting painting;
+        // Computed once per auction, every CFP round is answered by comparing the asking price with it
+        private double strategyMultiplier;
+        private int amountWillingToPay;
+
+        public BidRequestResponder(Agent agent, Painting painting, MessageTemplate mt)
         {
             super(agent, mt);
+            this.painting = painting;
+
+            if (painting != null)
+            {
+                this.strategyMultiplier = getStrategyMultiplier(painting);
+                this.amountWillingToPay = (int)(painting.getMarketValue() * this.strategyMultiplier);
+            }
         }
 
         @Override
@@ -237,25 +298,44 @@ public class CuratorAgent extends Agent
         {
             ACLMessage reply = cfp.createReply();
 
-            try
+            if (painting == null)
             {
-                BidRequestDTO dto = (BidRequestDTO) cfp.getContentObject();
+                reply.setPerformative(ACLMessage.NOT_UNDERSTOOD);
+                reply.setContent("not understood");
+                return reply;
+            }
 
-                double strategyMultiplier = getStrategyMultiplier(dto.painting);
-                double amountWillingToPay = dto.painting.getMarketValue() * strategyMultiplier;
+            try
+            {
+                int askingPrice = AuctionCodec.decodeAskingPrice(cfp.getContent());
 
                 System.out.println(myAgent.getName()
-                        + " - Received asking price for painting " + dto.painting.getName() + ": " + dto.askingPrice
-                        + " - Willing to pay: " + (int)amountWillingToPay
+                        + " - Received asking price for painting " + painting.getName() + ": " + askingPrice
+                        + " - Willing to pay: " + amountWillingToPay
                         + " - Strategy multiplier: " + strategyMultiplier
                 );
 
-                if ((double)dto.askingPrice <= amountWillingToPay)
+                if (ArtistManagerAgent.SEALED_BID_AUCTION.equals(cfp.getProtocol()))
+                {
+                    // Sealed-bid auction, the asking price is the reserve price.
+                    // There is only one round, so bid the most I am willing to pay
+                    if (askingPrice <= amountWillingToPay)
+                    {
+                        reply.setPerformative(ACLMessage.PROPOSE);
+                        reply.setContent(String.valueOf(amountWillingToPay));
+                    }
+                    else
+                    {
+                        reply.setPerformative(ACLMessage.REFUSE);
+                        reply.setContent("Reserve price too high");
+                    }
+                }
+                else if (askingPrice <= amountWillingToPay)
                 {
                     // I am willing to pay the asking price or higher,
                     // let's bid the asking price
                     reply.setPerformative(ACLMessage.PROPOSE);
-                    reply.setContent(String.valueOf(dto.askingPrice));
+                    reply.setContent(String.valueOf(askingPrice));
                 }
                 else
                 {
@@ -265,7 +345,7 @@ public class CuratorAgent extends Agent
                     reply.setContent("Asking price too high");
                 }
             }
-            catch (UnreadableException|NumberFormatException ex)
+            catch (NumberFormatException ex)
             {
                 System.err.println(ex);
                 reply.setPerformative(ACLMessage.NOT_UNDERSTOOD);
@@ -283,7 +363,9 @@ public class CuratorAgent extends Agent
             reply.setPerformative(ACLMessage.INFORM);
             reply.setContent("Thank you.");
 
-            System.out.println(myAgent.getName() + " - Won the auction. Strategy: " + biddingStrategy);
+            // The price is only set in sealed-bid auctions, in a Dutch auction I pay the asking price I bid
+            System.out.println(myAgent.getName() + " - Won the auction. Strategy: " + biddingStrategy
+                    + (accept.getContent() != null ? " - Price: " + accept.getContent() : ""));
 
             return reply;
         }
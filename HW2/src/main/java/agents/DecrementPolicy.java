@@ -0,0 +1,22 @@
+package agents;
+
+import artifacts.Painting;
+
+/**
+ * Price schedule of a Dutch auction: where the asking price starts and how it is lowered round by round.
+ * The artist manager reports every sale, so a policy can adapt the schedule to past results.
+ * */
+public interface DecrementPolicy
+{
+    int getInitialAskingPrice(Painting painting, int reservePrice);
+
+    /**
+     * Get the asking price of the next round, never below the reserve price
+     * */
+    int lowerAskingPrice(Painting painting, int currentAskingPrice, int reservePrice);
+
+    /**
+     * Record the price an auction of the painting was sold for, in any auction type
+     * */
+    void recordSale(Painting painting, int clearingPrice);
+}
@@ -0,0 +1,29 @@
+package agents;
+
+import artifacts.Painting;
+
+/**
+ * Start at twice the market value and lower the asking price by 10% every round
+ * */
+public class FixedDecrementPolicy implements DecrementPolicy
+{
+    public static final double INITIAL_MARKET_VALUE_RATIO = 2.0;
+    public static final double DECREMENT_FACTOR = 0.9;
+
+    @Override
+    public int getInitialAskingPrice(Painting painting, int reservePrice)
+    {
+        return Math.max(reservePrice, (int)(painting.getMarketValue() * INITIAL_MARKET_VALUE_RATIO));
+    }
+
+    @Override
+    public int lowerAskingPrice(Painting painting, int currentAskingPrice, int reservePrice)
+    {
+        return Math.max(reservePrice, (int)(currentAskingPrice * DECREMENT_FACTOR));
+    }
+
+    @Override
+    public void recordSale(Painting painting, int clearingPrice)
+    {
+    }
+}
@@ -0,0 +1,52 @@
+package agents;
+
+import artifacts.Painting;
+
+/**
+ * Learn the start price from the clearing prices of past auctions, per subject matter and medium.
+ * The price starts a margin above the highest clearing price seen, so no bidder that would have paid more
+ * under the fixed schedule is skipped, and is then lowered by the step of the fixed schedule. A bigger step
+ * would skip past the valuations of the bidders and the winner would pay less, so the rounds are only saved
+ * above the prices any bidder paid. Until a kind of painting has MIN_SALES sales the fixed schedule is used.
+ * */
+public class LearnedDecrementPolicy extends FixedDecrementPolicy
+{
+    public static final int MIN_SALES = 3;
+    public static final double START_MARGIN = 1.1;
+
+    private static final int MEDIUM_COUNT = Painting.PaintingMedium.values().length;
+    private static final int KIND_COUNT = Painting.SubjectMatter.values().length * MEDIUM_COUNT;
+
+    // Clearing price / market value statistics, indexed by kind of painting
+    private int[] sales = new int[KIND_COUNT];
+    private double[] maxClearingRatio = new double[KIND_COUNT];
+
+    @Override
+    public int getInitialAskingPrice(Painting painting, int reservePrice)
+    {
+        int kind = getKind(painting);
+        int fixedPrice = super.getInitialAskingPrice(painting, reservePrice);
+
+        if (sales[kind] < MIN_SALES)
+            return fixedPrice;
+
+        int learnedPrice = (int)Math.ceil(painting.getMarketValue() * maxClearingRatio[kind] * START_MARGIN);
+        return Math.max(reservePrice, Math.min(fixedPrice, learnedPrice));
+    }
+
+    @Override
+    public void recordSale(Painting painting, int clearingPrice)
+    {
+        int kind = getKind(painting);
+        double clearingRatio = (double)clearingPrice / painting.getMarketValue();
+
+        sales[kind]++;
+        if (clearingRatio > maxClearingRatio[kind])
+            maxClearingRatio[kind] = clearingRatio;
+    }
+
+    private int getKind(Painting painting)
+    {
+        return painting.getSubjectMatter().ordinal() * MEDIUM_COUNT + painting.getMedium().ordinal();
+    }
+}
@@ -0,0 +1,259 @@
+package artifacts;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Immutable catalogue of the paintings that can be auctioned, indexed by artist, subject matter, medium and century.
+ * Every agent of a JVM shares the default catalogue, which is read from the CSV file named by the
+ * paintings.catalogue system property, or is the built-in catalogue if the property is not set.
+ * The CSV file has a header line and one painting per line: name,artist,century,subjectMatter,medium,marketValue.
+ * Fields containing commas are quoted with ", a " inside a quoted field is written "".
+ * */
+public final class PaintingCatalogue
+{
+    public static final String CATALOGUE_PROPERTY = "paintings.catalogue";
+
+    private static final String BUILT_IN_CATALOGUE =
+            "name,artist,century,subjectMatter,medium,marketValue\n" +
+            "Mona Lisa,Leonardo da Vinci,15,Portrait,Oil,500\n" +
+            "The Scream,Edvard Munch,18,Abstract,Pastel,400\n" +
+            "The Persistence of Memory,Salvador Dalí,19,Abstract,Oil,400\n" +
+            "Wanderer above the Sea of Fog,Caspar David Friedrich,18,Landscape,Oil,400\n" +
+            "The Starry Night,Vincent van Gogh,18,Abstract,Oil,300\n" +
+            "Bouquet,Jan Brueghel the Elder,15,StillLife,Oil,200\n" +
+            "The Creation of Adam,Michelangelo,15,Religious,Fresco,600\n" +
+            "Jedburgh Abbey from the River,Thomas Girtin,17,Landscape,Watercolor,200\n" +
+            "A Bigger Splash,David Hockney,19,Landscape,Acrylic,100\n";
+
+    private final List<Painting> paintings;
+    private final List<String> artists;
+    private final Map<String, List<Painting>> paintingsByArtist;
+    private final Map<Painting.SubjectMatter, List<Painting>> paintingsBySubjectMatter;
+    private final Map<Painting.PaintingMedium, List<Painting>> paintingsByMedium;
+    private final Map<Integer, List<Painting>> paintingsByCentury;
+
+    private PaintingCatalogue(List<Painting> paintings)
+    {
+        LinkedHashMap<String, List<Painting>> byArtist = new LinkedHashMap<>();
+        EnumMap<Painting.SubjectMatter, List<Painting>> bySubjectMatter = new EnumMap<>(Painting.SubjectMatter.class);
+        EnumMap<Painting.PaintingMedium, List<Painting>> byMedium = new EnumMap<>(Painting.PaintingMedium.class);
+        HashMap<Integer, List<Painting>> byCentury = new HashMap<>();
+
+        for (Painting painting : paintings)
+        {
+            byArtist.computeIfAbsent(painting.getArtist(), key -> new ArrayList<>()).add(painting);
+            bySubjectMatter.computeIfAbsent(painting.getSubjectMatter(), key -> new ArrayList<>()).add(painting);
+            byMedium.computeIfAbsent(painting.getMedium(), key -> new ArrayList<>()).add(painting);
+            byCentury.computeIfAbsent(painting.getCenturyPainted(), key -> new ArrayList<>()).add(painting);
+        }
+
+        this.paintings = Collections.unmodifiableList(new ArrayList<>(paintings));
+        this.artists = Collections.unmodifiableList(new ArrayList<>(byArtist.keySet()));
+        this.paintingsByArtist = freeze(byArtist);
+        this.paintingsBySubjectMatter = freeze(bySubjectMatter);
+        this.paintingsByMedium = freeze(byMedium);
+        this.paintingsByCentury = freeze(byCentury);
+    }
+
+    /**
+     * Get the catalogue shared by the agents of this JVM, loaded on first use
+     * */
+    public static PaintingCatalogue getDefault()
+    {
+        return DefaultHolder.CATALOGUE;
+    }
+
+    /**
+     * Load a catalogue from a CSV file, throws IllegalArgumentException for a malformed line
+     * */
+    public static PaintingCatalogue load(String path) throws IOException
+    {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8))
+        {
+            return read(reader);
+        }
+    }
+
+    public static PaintingCatalogue read(Reader reader) throws IOException
+    {
+        BufferedReader lineReader = reader instanceof BufferedReader ? (BufferedReader)reader : new BufferedReader(reader);
+        ArrayList<Painting> paintings = new ArrayList<>();
+
+        // Skip the header
+        String line = lineReader.readLine();
+        int lineNumber = 1;
+
+        while ((line = lineReader.readLine()) != null)
+        {
+            lineNumber++;
+            if (line.trim().isEmpty())
+                continue;
+
+            List<String> fields = splitCsvLine(line);
+            if (fields.size() != 6)
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected 6 fields, got " + fields.size());
+
+            try
+            {
+                paintings.add(new Painting(
+                        fields.get(0),
+                        fields.get(1),
+                        Integer.parseInt(fields.get(2).trim()),
+                        Painting.SubjectMatter.valueOf(fields.get(3).trim()),
+                        Painting.PaintingMedium.valueOf(fields.get(4).trim()),
+                        Integer.parseInt(fields.get(5).trim())
+                ));
+            }
+            catch (IllegalArgumentException ex)
+            {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        if (paintings.isEmpty())
+            throw new IllegalArgumentException("The catalogue has no paintings");
+
+        return new PaintingCatalogue(paintings);
+    }
+
+    public int size()
+    {
+        return paintings.size();
+    }
+
+    public List<Painting> getPaintings()
+    {
+        return paintings;
+    }
+
+    public Painting getRandomPainting(Random random)
+    {
+        return paintings.get(random.nextInt(paintings.size()));
+    }
+
+    /**
+     * Get every artist of the catalogue once, in the order they first appear
+     * */
+    public List<String> getArtists()
+    {
+        return artists;
+    }
+
+    public List<Painting> getPaintingsByArtist(String artist)
+    {
+        return paintingsByArtist.getOrDefault(artist, Collections.emptyList());
+    }
+
+    public List<Painting> getPaintingsBySubjectMatter(Painting.SubjectMatter subjectMatter)
+    {
+        return paintingsBySubjectMatter.getOrDefault(subjectMatter, Collections.emptyList());
+    }
+
+    public List<Painting> getPaintingsByMedium(Painting.PaintingMedium medium)
+    {
+        return paintingsByMedium.getOrDefault(medium, Collections.emptyList());
+    }
+
+    public List<Painting> getPaintingsByCentury(int century)
+    {
+        return paintingsByCentury.getOrDefault(century, Collections.emptyList());
+    }
+
+    private static <K> Map<K, List<Painting>> freeze(Map<K, List<Painting>> index)
+    {
+        for (Map.Entry<K, List<Painting>> entry : index.entrySet())
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static List<String> splitCsvLine(String line)
+    {
+        ArrayList<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+
+            if (quoted)
+            {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"')
+                {
+                    field.append('"');
+                    i++;
+                }
+                else if (c == '"')
+                {
+                    quoted = false;
+                }
+                else
+                {
+                    field.append(c);
+                }
+            }
+            else if (c == '"')
+            {
+                quoted = true;
+            }
+            else if (c == ',')
+            {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else
+            {
+                field.append(c);
+            }
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static class DefaultHolder
+    {
+        private static final PaintingCatalogue CATALOGUE = loadDefault();
+
+        private static PaintingCatalogue loadDefault()
+        {
+            String path = System.getProperty(CATALOGUE_PROPERTY);
+            if (path != null)
+            {
+                try
+                {
+                    return load(path);
+                }
+                catch (IOException|IllegalArgumentException ex)
+                {
+                    System.err.println("PaintingCatalogue: Could not load " + path + ", using the built-in catalogue - " + ex);
+                }
+            }
+
+            try
+            {
+                return read(new StringReader(BUILT_IN_CATALOGUE));
+            }
+            catch (IOException ex)
+            {
+                // Reading from a string does not fail
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
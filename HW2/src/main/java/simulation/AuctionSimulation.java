@@ -0,0 +1,129 @@
+package simulation;
+
+import agents.ArtistManagerAgent;
+import agents.AuctionStatistics;
+import agents.CuratorAgent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.Runtime;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.StaleProxyException;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless load test of the auctions: starts a JADE main container in this JVM with the given number of
+ * CuratorAgents, with seeded interests and strategies, and one ArtistManagerAgent that runs the auctions as an
+ * auction house. Prints the AuctionStatistics of the run (auctions per second, rounds and messages per auction,
+ * p50/p99 settlement latency) and exits.
+ * The log of the agents is discarded unless verbose is given, printing it would be most of the work.
+ * */
+public class AuctionSimulation
+{
+    private static final String[] STRATEGIES = { "passive", "medium", "aggressive" };
+    private static final long TIMEOUT_MINUTES = 30;
+
+    public static void main(String[] args)
+    {
+        int curatorCount;
+        int auctionCount;
+        int concurrency;
+        String auctionType = args.length >= 4 ? args[3] : "dutch";
+        String decrementPolicy = args.length >= 5 ? args[4] : "fixed";
+        long seed;
+        boolean verbose = args.length >= 7 && args[6].equals("verbose");
+
+        try
+        {
+            curatorCount = Integer.parseInt(args[0]);
+            auctionCount = Integer.parseInt(args[1]);
+            concurrency = Integer.parseInt(args[2]);
+            seed = args.length >= 6 ? Long.parseLong(args[5]) : 1;
+        }
+        catch (ArrayIndexOutOfBoundsException|NumberFormatException ex)
+        {
+            System.out.println("AuctionSimulation: Need arguments on the form " +
+                    "curators auctions concurrency [auctionType [decrementPolicy [seed [verbose]]]] " +
+                    "where concurrency is the number of auctions running at the same time, 1 runs them back to back. " +
+                    "Example: 1000 500 50 dutch learned 42");
+            return;
+        }
+
+        PrintStream report = System.out;
+        if (!verbose)
+        {
+            System.setOut(new PrintStream(new OutputStream()
+            {
+                @Override
+                public void write(int b)
+                {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len)
+                {
+                }
+            }));
+        }
+
+        Runtime runtime = Runtime.instance();
+        Profile profile = new ProfileImpl();
+        // The DF returns at most 100 agents per search by default
+        profile.setParameter("jade_domain_df_maxresult", String.valueOf(Math.max(100, curatorCount)));
+        AgentContainer container = runtime.createMainContainer(profile);
+        AuctionStatistics statistics = new AuctionStatistics();
+
+        try
+        {
+            // Seeded curators, a run can be repeated with the same interests and strategies
+            Random random = new Random(seed);
+            for (int i = 0; i < curatorCount; i++)
+            {
+                Object[] curatorArgs = {
+                        STRATEGIES[random.nextInt(STRATEGIES.length)],
+                        String.valueOf(random.nextLong())
+                };
+                container.createNewAgent("curator-" + i, CuratorAgent.class.getName(), curatorArgs).start();
+            }
+
+            // The artist manager looks for bidders after 5 seconds and then starts the auctions
+            Object[] managerArgs = {
+                    auctionType,
+                    String.valueOf(auctionCount),
+                    decrementPolicy,
+                    String.valueOf(concurrency),
+                    statistics
+            };
+            container.createNewAgent("artist-manager", ArtistManagerAgent.class.getName(), managerArgs).start();
+
+            report.println("AuctionSimulation - Curators: " + curatorCount
+                    + " - Auctions: " + auctionCount
+                    + " - Concurrency: " + concurrency
+                    + " - Auction type: " + auctionType
+                    + " - Decrement policy: " + decrementPolicy
+                    + " - Seed: " + seed);
+
+            if (statistics.awaitDone(TIMEOUT_MINUTES, TimeUnit.MINUTES))
+                report.println("AuctionSimulation - " + statistics.getReport());
+            else
+                report.println("AuctionSimulation - Timed out after " + TIMEOUT_MINUTES + " minutes");
+        }
+        catch (StaleProxyException|InterruptedException ex)
+        {
+            ex.printStackTrace();
+        }
+
+        try
+        {
+            container.kill();
+        }
+        catch (StaleProxyException ex)
+        {
+            ex.printStackTrace();
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,73 @@
+package DTOs;
+
+import artifacts.Painting;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AuctionCodecTest
+{
+    @Test
+    public void paintingRoundTrip()
+    {
+        Painting painting = new Painting("The Night Watch, detail", "Rembrandt van Rijn", 17,
+                Painting.SubjectMatter.Portrait, Painting.PaintingMedium.Oil, 750);
+
+        Painting decoded = AuctionCodec.decodePainting(AuctionCodec.encodePainting(painting));
+        assertEquals(painting.getName(), decoded.getName());
+        assertEquals(painting.getArtist(), decoded.getArtist());
+        assertEquals(painting.getCenturyPainted(), decoded.getCenturyPainted());
+        assertEquals(painting.getSubjectMatter(), decoded.getSubjectMatter());
+        assertEquals(painting.getMedium(), decoded.getMedium());
+        assertEquals(painting.getMarketValue(), decoded.getMarketValue());
+    }
+
+    @Test
+    public void paintingWithEmptyFieldsRoundTrip()
+    {
+        Painting painting = new Painting("", "", 0, Painting.SubjectMatter.Abstract, Painting.PaintingMedium.Fresco, 0);
+
+        Painting decoded = AuctionCodec.decodePainting(AuctionCodec.encodePainting(painting));
+        assertEquals("", decoded.getName());
+        assertEquals("", decoded.getArtist());
+        assertEquals(Painting.SubjectMatter.Abstract, decoded.getSubjectMatter());
+        assertEquals(Painting.PaintingMedium.Fresco, decoded.getMedium());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void paintingWithMissingFieldIsRejected()
+    {
+        AuctionCodec.decodePainting("Mona Lisa\tLeonardo da Vinci\t15\tPortrait\tOil");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void paintingWithUnknownMediumIsRejected()
+    {
+        AuctionCodec.decodePainting("Mona Lisa\tLeonardo da Vinci\t15\tPortrait\tCharcoal\t500");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void paintingWithMalformedValueIsRejected()
+    {
+        AuctionCodec.decodePainting("Mona Lisa\tLeonardo da Vinci\t15\tPortrait\tOil\tpriceless");
+    }
+
+    @Test
+    public void bidRequestRoundTrip()
+    {
+        assertEquals(1200, AuctionCodec.decodeAskingPrice(AuctionCodec.encodeBidRequest("auction-17", 1200)));
+        assertEquals(0, AuctionCodec.decodeAskingPrice(AuctionCodec.encodeBidRequest("auction 1", 0)));
+    }
+
+    @Test
+    public void askingPriceWithoutAuctionId()
+    {
+        assertEquals(550, AuctionCodec.decodeAskingPrice("550"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void malformedAskingPriceIsRejected()
+    {
+        AuctionCodec.decodeAskingPrice("cheap auction-17");
+    }
+}
@@ -0,0 +1,134 @@
+package agents;
+
+import artifacts.Painting;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DecrementPolicyTest
+{
+    private static final Painting OIL_PORTRAIT = new Painting("Mona Lisa", "Leonardo da Vinci", 15,
+            Painting.SubjectMatter.Portrait, Painting.PaintingMedium.Oil, 1000);
+    private static final Painting OIL_LANDSCAPE = new Painting("The Hay Wain", "John Constable", 19,
+            Painting.SubjectMatter.Landscape, Painting.PaintingMedium.Oil, 1000);
+    private static final int RESERVE_PRICE = 1100;
+
+    @Test
+    public void fixedStartsAtTwiceTheMarketValue()
+    {
+        FixedDecrementPolicy policy = new FixedDecrementPolicy();
+        assertEquals(2000, policy.getInitialAskingPrice(OIL_PORTRAIT, RESERVE_PRICE));
+        assertEquals(2500, policy.getInitialAskingPrice(OIL_PORTRAIT, 2500));
+    }
+
+    @Test
+    public void fixedLowersByTenPercentDownToTheReservePrice()
+    {
+        FixedDecrementPolicy policy = new FixedDecrementPolicy();
+        assertEquals(1800, policy.lowerAskingPrice(OIL_PORTRAIT, 2000, RESERVE_PRICE));
+        assertEquals(1620, policy.lowerAskingPrice(OIL_PORTRAIT, 1800, RESERVE_PRICE));
+        assertEquals(RESERVE_PRICE, policy.lowerAskingPrice(OIL_PORTRAIT, 1200, RESERVE_PRICE));
+        assertEquals(RESERVE_PRICE, policy.lowerAskingPrice(OIL_PORTRAIT, RESERVE_PRICE, RESERVE_PRICE));
+    }
+
+    @Test
+    public void bisectionHalvesTheDistanceToTheReservePrice()
+    {
+        BisectionDecrementPolicy policy = new BisectionDecrementPolicy();
+        assertEquals(2000, policy.getInitialAskingPrice(OIL_PORTRAIT, RESERVE_PRICE));
+        assertEquals(1550, policy.lowerAskingPrice(OIL_PORTRAIT, 2000, RESERVE_PRICE));
+        assertEquals(1325, policy.lowerAskingPrice(OIL_PORTRAIT, 1550, RESERVE_PRICE));
+        assertEquals(RESERVE_PRICE, policy.lowerAskingPrice(OIL_PORTRAIT, RESERVE_PRICE + 1, RESERVE_PRICE));
+    }
+
+    @Test
+    public void everyScheduleReachesTheReservePrice()
+    {
+        DecrementPolicy[] policies = {
+                new FixedDecrementPolicy(), new BisectionDecrementPolicy(), new LearnedDecrementPolicy()
+        };
+
+        for (DecrementPolicy policy : policies)
+        {
+            int askingPrice = policy.getInitialAskingPrice(OIL_PORTRAIT, RESERVE_PRICE);
+            for (int round = 0; askingPrice > RESERVE_PRICE; round++)
+            {
+                assertTrue(policy.getClass().getSimpleName() + " does not reach the reserve price", round < 64);
+
+                int loweredPrice = policy.lowerAskingPrice(OIL_PORTRAIT, askingPrice, RESERVE_PRICE);
+                assertTrue(loweredPrice < askingPrice);
+                assertTrue(loweredPrice >= RESERVE_PRICE);
+                askingPrice = loweredPrice;
+            }
+            assertEquals(RESERVE_PRICE, askingPrice);
+        }
+    }
+
+    @Test
+    public void learnedUsesTheFixedScheduleUntilEnoughSales()
+    {
+        LearnedDecrementPolicy policy = new LearnedDecrementPolicy();
+        for (int i = 0; i < LearnedDecrementPolicy.MIN_SALES - 1; i++)
+        {
+            policy.recordSale(OIL_PORTRAIT, 1200);
+            assertEquals(2000, policy.getInitialAskingPrice(OIL_PORTRAIT, RESERVE_PRICE));
+        }
+
+        policy.recordSale(OIL_PORTRAIT, 1200);
+        assertEquals(1320, policy.getInitialAskingPrice(OIL_PORTRAIT, RESERVE_PRICE));
+    }
+
+    @Test
+    public void learnedStartsAboveTheHighestClearingPrice()
+    {
+        LearnedDecrementPolicy policy = new LearnedDecrementPolicy();
+        policy.recordSale(OIL_PORTRAIT, 1200);
+        policy.recordSale(OIL_PORTRAIT, 1500);
+        policy.recordSale(OIL_PORTRAIT, 1150);
+
+        int initialAskingPrice = policy.getInitialAskingPrice(OIL_PORTRAIT, RESERVE_PRICE);
+        // START_MARGIN above the highest clearing ratio, rounded up
+        assertEquals(1500 * LearnedDecrementPolicy.START_MARGIN, initialAskingPrice, 1.0);
+        assertTrue(initialAskingPrice > 1500);
+    }
+
+    @Test
+    public void learnedNeverStartsAboveTheFixedScheduleOrBelowTheReservePrice()
+    {
+        LearnedDecrementPolicy policy = new LearnedDecrementPolicy();
+        for (int i = 0; i < LearnedDecrementPolicy.MIN_SALES; i++)
+            policy.recordSale(OIL_PORTRAIT, 5000);
+        assertEquals(2000, policy.getInitialAskingPrice(OIL_PORTRAIT, RESERVE_PRICE));
+
+        policy = new LearnedDecrementPolicy();
+        for (int i = 0; i < LearnedDecrementPolicy.MIN_SALES; i++)
+            policy.recordSale(OIL_PORTRAIT, 500);
+        assertEquals(RESERVE_PRICE, policy.getInitialAskingPrice(OIL_PORTRAIT, RESERVE_PRICE));
+    }
+
+    @Test
+    public void learnedKeepsEachKindOfPaintingApart()
+    {
+        LearnedDecrementPolicy policy = new LearnedDecrementPolicy();
+        for (int i = 0; i < LearnedDecrementPolicy.MIN_SALES; i++)
+            policy.recordSale(OIL_PORTRAIT, 1200);
+
+        assertEquals(1320, policy.getInitialAskingPrice(OIL_PORTRAIT, RESERVE_PRICE));
+        assertEquals(2000, policy.getInitialAskingPrice(OIL_LANDSCAPE, RESERVE_PRICE));
+    }
+
+    @Test
+    public void learnedLowersWithTheFixedStep()
+    {
+        LearnedDecrementPolicy policy = new LearnedDecrementPolicy();
+        FixedDecrementPolicy fixedPolicy = new FixedDecrementPolicy();
+        for (int i = 0; i < LearnedDecrementPolicy.MIN_SALES; i++)
+            policy.recordSale(OIL_PORTRAIT, 1200);
+
+        for (int askingPrice = 2000; askingPrice > RESERVE_PRICE; askingPrice -= 37)
+        {
+            assertEquals(fixedPolicy.lowerAskingPrice(OIL_PORTRAIT, askingPrice, RESERVE_PRICE),
+                    policy.lowerAskingPrice(OIL_PORTRAIT, askingPrice, RESERVE_PRICE));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package agents;
+
+import org.junit.Test;
+
+import static agents.ArtistManagerAgent.AuctionType.FIRST_PRICE;
+import static agents.ArtistManagerAgent.AuctionType.SECOND_PRICE;
+import static agents.ArtistManagerAgent.NO_BID;
+import static agents.ArtistManagerAgent.settleSealedBids;
+import static org.junit.Assert.*;
+
+public class SealedBidAuctionTest
+{
+    @Test
+    public void secondPriceWinnerPaysTheSecondHighestBid()
+    {
+        assertArrayEquals(new int[] { 1, 900, 700 }, settleSealedBids(new int[] { 700, 900, 650 }, 500, SECOND_PRICE));
+        assertArrayEquals(new int[] { 2, 900, 800 }, settleSealedBids(new int[] { 650, 800, 900 }, 500, SECOND_PRICE));
+    }
+
+    @Test
+    public void firstPriceWinnerPaysItsOwnBid()
+    {
+        assertArrayEquals(new int[] { 1, 900, 900 }, settleSealedBids(new int[] { 700, 900, 650 }, 500, FIRST_PRICE));
+    }
+
+    @Test
+    public void singleAcceptableBidPaysTheReservePrice()
+    {
+        assertArrayEquals(new int[] { 1, 900, 500 }, settleSealedBids(new int[] { 400, 900, 450 }, 500, SECOND_PRICE));
+        assertArrayEquals(new int[] { 0, 500, 500 }, settleSealedBids(new int[] { 500 }, 500, SECOND_PRICE));
+    }
+
+    @Test
+    public void bidsBelowTheReservePriceAreIgnored()
+    {
+        // 480 is the second highest bid, but below the reserve price
+        assertArrayEquals(new int[] { 0, 600, 550 }, settleSealedBids(new int[] { 600, 480, 550 }, 500, SECOND_PRICE));
+    }
+
+    @Test
+    public void equalHighestBidsGoToTheFirstBidderAtTheirPrice()
+    {
+        assertArrayEquals(new int[] { 1, 800, 800 }, settleSealedBids(new int[] { 600, 800, 800 }, 500, SECOND_PRICE));
+    }
+
+    @Test
+    public void invalidResponsesAreSkipped()
+    {
+        assertArrayEquals(new int[] { 2, 700, 500 }, settleSealedBids(new int[] { NO_BID, NO_BID, 700 }, 500, SECOND_PRICE));
+        assertArrayEquals(new int[] { 0, 0, 0 }, settleSealedBids(new int[] { 0, NO_BID }, 0, SECOND_PRICE));
+    }
+
+    @Test
+    public void noAcceptableBidHasNoWinner()
+    {
+        assertNull(settleSealedBids(new int[] { 499, NO_BID }, 500, SECOND_PRICE));
+        assertNull(settleSealedBids(new int[0], 500, FIRST_PRICE));
+    }
+}
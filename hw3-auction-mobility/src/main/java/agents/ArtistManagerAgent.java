@@ -1,7 +1,8 @@
 package agents;
 
-import DTOs.BidRequestDTO;
+import DTOs.AuctionCodec;
 import artifacts.Painting;
+import artifacts.PaintingCatalogue;
 import gui.ArtistManagerAgentGui;
 import jade.content.ContentElement;
 import jade.content.lang.Codec;
@@ -39,6 +40,33 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public class ArtistManagerAgent extends MobileAgent
 {
+    /**
+     * Dutch: the asking price is lowered round by round until a bidder accepts it.
+     * First-price and second-price are sealed-bid: every bidder proposes its maximum once and the highest bid wins,
+     * paying its own bid or the second highest bid (at least the reserve price).
+     * */
+    public enum AuctionType
+    {
+        DUTCH,
+        FIRST_PRICE,
+        SECOND_PRICE
+    }
+
+    /**
+     * Protocol of the CFP and the start-of-auction message of the sealed-bid auctions
+     * */
+    public static final String SEALED_BID_AUCTION = "sealed-bid-auction";
+    /**
+     * User defined parameter of a sealed winning bid holding the price the winner pays,
+     * which is reported to the original parent with the bid
+     * */
+    private static final String PRICE = "price";
+    /**
+     * User defined parameter of a sealed winning bid holding the second highest bid the clone received
+     * (at least the reserve price). The parent needs it to price a second-price auction over all clones
+     * */
+    private static final String SECOND_HIGHEST_BID = "second-highest-bid";
+
     private DFAgentDescription bidderServiceTemplate;
     private ArrayList<AID> biddersInSameContainer;
     private ArrayList<AID> clones;
@@ -47,6 +75,7 @@ public class ArtistManagerAgent extends MobileAgent
     private Location originalParentLocation;
 
     private ACLMessage auctionWinningBid;
+    private AuctionType auctionType;
 
     protected void setup()
     {
@@ -54,6 +83,23 @@ public class ArtistManagerAgent extends MobileAgent
 
         super.setup();
 
+        // The auction type is the optional second argument, after the controller agent. Clones keep it.
+        Object[] args = getArguments();
+        String auctionType = args.length >= 2 && args[1] != null ? (String)args[1] : "dutch";
+
+        if (auctionType.equals("first-price"))
+        {
+            this.auctionType = AuctionType.FIRST_PRICE;
+        }
+        else if (auctionType.equals("second-price"))
+        {
+            this.auctionType = AuctionType.SECOND_PRICE;
+        }
+        else
+        {
+            this.auctionType = AuctionType.DUTCH;
+        }
+
         this.biddersInSameContainer = new ArrayList<>();
         this.clones = new ArrayList<>();
         this.paintingToAuction = getRandomPainting();
@@ -71,7 +117,7 @@ public class ArtistManagerAgent extends MobileAgent
         // We start the auction from the GUI instead
         //this.addBehaviour(new AuctionManagementWaker(this, 5000));
 
-        System.out.println("ArtistManagerAgent " + getAID().getName() + " is ready.");
+        System.out.println("ArtistManagerAgent " + getAID().getName() + " is ready. Auction type: " + this.auctionType);
     }
 
     protected void takeDown()
@@ -207,21 +253,25 @@ public class ArtistManagerAgent extends MobileAgent
             this.addSubBehaviour(new InformBiddersOfStartOfAuctionBehaviour(myAgent, paintingToAuction));
 
             // Start the auction
-            try
+            String conversationId = "auction-" + paintingToAuction.getName();
+            ACLMessage cfp = new ACLMessage(ACLMessage.CFP);
+            cfp.setProtocol(getAuctionProtocol());
+            cfp.setConversationId(conversationId);
+            for (AID bidder : biddersInSameContainer)
+                cfp.addReceiver(bidder);
+
+            if (auctionType == AuctionType.DUTCH)
             {
-                ACLMessage cfp = new ACLMessage(ACLMessage.CFP);
-                cfp.setProtocol(FIPANames.InteractionProtocol.FIPA_DUTCH_AUCTION);
-                cfp.setConversationId("auction-" + paintingToAuction.getName());
-                BidRequestDTO dto = new BidRequestDTO(paintingToAuction, getInitialAskingPrice(paintingToAuction));
-                cfp.setContentObject(dto);
-                for (AID bidder : biddersInSameContainer)
-                    cfp.addReceiver(bidder);
-
-                this.addSubBehaviour(new DutchAuctionInitiator(myAgent, cfp));
+                int askingPrice = getInitialAskingPrice(paintingToAuction);
+                cfp.setContent(AuctionCodec.encodeBidRequest(conversationId, askingPrice));
+                this.addSubBehaviour(new DutchAuctionInitiator(myAgent, cfp, paintingToAuction, askingPrice));
             }
-            catch (IOException ex)
+            else
             {
-                System.err.println(ex);
+                // Sealed-bid: the asking price is the reserve price, the lowest acceptable bid
+                int reservePrice = getReservePrice(paintingToAuction);
+                cfp.setContent(AuctionCodec.encodeBidRequest(conversationId, reservePrice));
+                this.addSubBehaviour(new SealedBidAuctionInitiator(myAgent, cfp, reservePrice));
             }
         }
     }
@@ -239,9 +289,12 @@ public class ArtistManagerAgent extends MobileAgent
         @Override
         public void action()
         {
+            // The painting is only sent here, the CFP rounds of the auction carry just the asking price
             ACLMessage inform = new ACLMessage(ACLMessage.INFORM);
             inform.setContent("start-of-auction");
+            inform.addUserDefinedParameter(AuctionCodec.PAINTING, AuctionCodec.encodePainting(painting));
             inform.setConversationId("auction-" + painting.getName());
+            inform.setProtocol(getAuctionProtocol());
             for (AID bidder : biddersInSameContainer)
                 inform.addReceiver(bidder);
 
@@ -304,23 +357,37 @@ public class ArtistManagerAgent extends MobileAgent
         and ignore all the responses and proposals that have not yet been received.
         */
 
+        // Typed state of the current round, the CFP content is only written, never read back
         private ACLMessage cfp;
+        private Painting painting;
+        private int askingPrice;
+        private int reservePrice;
         private int roundCount;
+        private int highestBid;
 
-        public DutchAuctionInitiator(Agent a, ACLMessage cfp)
+        public DutchAuctionInitiator(Agent a, ACLMessage cfp, Painting painting, int askingPrice)
         {
             super(a, cfp);
 
             this.cfp = cfp;
+            this.painting = painting;
+            this.askingPrice = askingPrice;
+            this.reservePrice = getReservePrice(painting);
             this.roundCount = 0;
         }
 
         @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
         protected void handleAllResponses(Vector responses, Vector acceptances)
         {
-            // All responses have been received or the reply-by deadline has expired
-
+            // JADE declares the vectors raw, they hold ACLMessages
             super.handleAllResponses(responses, acceptances);
+            handleAllBids((Vector<ACLMessage>)responses, (Vector<ACLMessage>)acceptances);
+        }
+
+        private void handleAllBids(Vector<ACLMessage> responses, Vector<ACLMessage> acceptances)
+        {
+            // All responses have been received or the reply-by deadline has expired
 
             roundCount++;
 
@@ -329,7 +396,7 @@ public class ArtistManagerAgent extends MobileAgent
             System.out.println(myAgent.getName() + " - All responses received");
             for (int i = 0; i < responses.size(); i++)
             {
-                ACLMessage response = (ACLMessage)responses.elementAt(i);
+                ACLMessage response = responses.elementAt(i);
                 System.out.println(myAgent.getName() + " - " + AgentHelper.getAclMessageDisplayString(response));
             }
 
@@ -344,7 +411,7 @@ public class ArtistManagerAgent extends MobileAgent
             // and remove the bidders that didn't understand from the list of bidders
             for (int i = 0; i < responses.size(); i++)
             {
-                ACLMessage response = (ACLMessage) responses.elementAt(i);
+                ACLMessage response = responses.elementAt(i);
 
                 if (response.getPerformative() == ACLMessage.PROPOSE && !response.equals(winningBid))
                 {
@@ -364,57 +431,45 @@ public class ArtistManagerAgent extends MobileAgent
             {
                 // We do not have a winner, need another iteration with lower price
 
-                try
+                // Check if we have already gone as low as we can go
+                if (askingPrice == reservePrice)
                 {
-                    BidRequestDTO oldDTO = (BidRequestDTO)cfp.getContentObject();
-
-                    // Check if we have already gone as low as we can go
-                    if (oldDTO.askingPrice == getReservePrice(oldDTO.painting))
-                    {
-                        // We have already reached the reserve price with no luck.
-                        // Abort the auction
-                        System.out.println(myAgent.getName() + " - Auction of painting \"" + oldDTO.painting.getName()
-                                + "\" reached the reserve price: " + getReservePrice(oldDTO.painting)
-                                + " - Aborting auction."
-                        );
-                        System.out.println(myAgent.getName() + " - Auction over. Number of rounds: " + roundCount);
-                        myGui.setInfo("Auction failure. Number of rounds: " + roundCount);
-                        moveCloneToOriginalContainerAndReportAuctionResult();
-                        return;
-                    }
-
-                    // Start the next iteration, if we have any bidders left
-                    if (biddersInSameContainer.size() > 0)
-                    {
-                        // Lower the price
-                        BidRequestDTO newDTO = new BidRequestDTO(
-                                oldDTO.painting,
-                                lowerAskingPrice(oldDTO.painting, oldDTO.askingPrice)
-                        );
-                        cfp.setContentObject(newDTO);
-
-                        // Update the bidders list
-                        cfp.clearAllReceiver();
-                        for (AID bidder : biddersInSameContainer)
-                            cfp.addReceiver(bidder);
+                    // We have already reached the reserve price with no luck.
+                    // Abort the auction
+                    System.out.println(myAgent.getName() + " - Auction of painting \"" + painting.getName()
+                            + "\" reached the reserve price: " + reservePrice
+                            + " - Aborting auction."
+                    );
+                    System.out.println(myAgent.getName() + " - Auction over. Number of rounds: " + roundCount);
+                    myGui.setInfo("Auction failure. Number of rounds: " + roundCount);
+                    moveCloneToOriginalContainerAndReportAuctionResult();
+                    return;
+                }
 
-                        // Set up and start next iteration
-                        Vector<ACLMessage> nextIterationMessages = new Vector<>();
-                        nextIterationMessages.add(cfp);
-                        newIteration(nextIterationMessages);
-                    }
-                    else
-                    {
-                        // auction failure
-                        System.out.println(myAgent.getName() + " - No bidders left. Aborting auction.");
-                        System.out.println(myAgent.getName() + " - Auction over. Number of rounds: " + roundCount);
-                        myGui.setInfo("Auction failure. Number of rounds: " + roundCount);
-                        moveCloneToOriginalContainerAndReportAuctionResult();
-                    }
+                // Start the next iteration, if we have any bidders left
+                if (biddersInSameContainer.size() > 0)
+                {
+                    // Lower the price
+                    askingPrice = lowerAskingPrice(painting, askingPrice);
+                    cfp.setContent(AuctionCodec.encodeBidRequest(cfp.getConversationId(), askingPrice));
+
+                    // Update the bidders list
+                    cfp.clearAllReceiver();
+                    for (AID bidder : biddersInSameContainer)
+                        cfp.addReceiver(bidder);
+
+                    // Set up and start next iteration
+                    Vector<ACLMessage> nextIterationMessages = new Vector<>();
+                    nextIterationMessages.add(cfp);
+                    newIteration(nextIterationMessages);
                 }
-                catch (IOException|UnreadableException ex)
+                else
                 {
-                    System.err.println(ex);
+                    // auction failure
+                    System.out.println(myAgent.getName() + " - No bidders left. Aborting auction.");
+                    System.out.println(myAgent.getName() + " - Auction over. Number of rounds: " + roundCount);
+                    myGui.setInfo("Auction failure. Number of rounds: " + roundCount);
+                    moveCloneToOriginalContainerAndReportAuctionResult();
                 }
             }
             else
@@ -436,35 +491,41 @@ public class ArtistManagerAgent extends MobileAgent
             System.out.println(myAgent.getName() + " - " + AgentHelper.getAclMessageDisplayString(inform));
         }
 
-        private int getCurrentAskingPrice()
-        {
-            try
-            {
-                BidRequestDTO dto = (BidRequestDTO)cfp.getContentObject();
-                return dto.askingPrice;
-            }
-            catch (UnreadableException ex)
-            {
-                System.err.println(ex);
-                return 0;
-            }
-        }
-
+        /**
+         * Get the highest bid at or above the asking price of this round. Every bid is parsed once
+         * and compared with the asking price of the round, its amount is kept in highestBid
+         * */
         private ACLMessage getHighestAcceptableBid(Vector<ACLMessage> bids)
         {
-            ArrayList<ACLMessage> acceptableBids = getAcceptableBids(bids);
-
-            int highestBid = 0;
+            // Bids will always be integers
+            highestBid = 0;
             ACLMessage highestBidMessage = null;
 
-            for (ACLMessage acceptableBid : acceptableBids)
+            for (int i = 0; i < bids.size(); i++)
             {
-                int bidAmount = Integer.parseInt(acceptableBid.getContent());
+                ACLMessage bid = bids.elementAt(i);
+
+                if (bid.getPerformative() != ACLMessage.PROPOSE)
+                    continue;
 
-                if (bidAmount > highestBid)
+                try
                 {
-                    highestBid = bidAmount;
-                    highestBidMessage = acceptableBid;
+                    int bidAmount = Integer.parseInt(bid.getContent());
+
+                    System.out.println(myAgent.getName()
+                            + " - Received bid from " + bid.getSender().getName()
+                            + " for " + bidAmount
+                    );
+
+                    if (bidAmount >= askingPrice && bidAmount > highestBid)
+                    {
+                        highestBid = bidAmount;
+                        highestBidMessage = bid;
+                    }
+                }
+                catch (NumberFormatException ex)
+                {
+                    System.err.println(ex);
                 }
             }
 
@@ -472,7 +533,7 @@ public class ArtistManagerAgent extends MobileAgent
             {
                 System.out.println(myAgent.getName()
                         + " - Highest acceptable bid (winning bid): "
-                        + highestBidMessage.getContent() + " from " + highestBidMessage.getSender().getName()
+                        + highestBid + " from " + highestBidMessage.getSender().getName()
                 );
             }
             else
@@ -482,40 +543,120 @@ public class ArtistManagerAgent extends MobileAgent
 
             return highestBidMessage;
         }
+    }
+
+    /**
+     * Sealed-bid auction, settled in a single CFP round: the highest bid at or above the reserve price wins.
+     * The winner pays its own bid in a first-price auction, and the second highest bid (or the reserve price
+     * if it was the only acceptable bid) in a second-price auction.
+     * Like the Dutch auction the winning bid is reported to the original parent, which accepts the best one.
+     * In a second-price auction the parent sets the price from the second highest bid of the winning clone
+     * and the highest bids of the other clones.
+     * */
+    private class SealedBidAuctionInitiator extends ContractNetInitiator
+    {
+        private int reservePrice;
 
-        private ArrayList<ACLMessage> getAcceptableBids(Vector<ACLMessage> bids)
+        public SealedBidAuctionInitiator(Agent a, ACLMessage cfp, int reservePrice)
         {
-            // We accept bids that match the asking price
-            // Bids will always be integers
+            super(a, cfp);
 
-            ArrayList<ACLMessage> acceptableBids = new ArrayList<>();
+            this.reservePrice = reservePrice;
+        }
 
-            for (int i = 0; i < bids.size(); i++)
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        protected void handleAllResponses(Vector responses, Vector acceptances)
+        {
+            // JADE declares the vectors raw, they hold ACLMessages
+            super.handleAllResponses(responses, acceptances);
+            handleAllBids((Vector<ACLMessage>)responses, (Vector<ACLMessage>)acceptances);
+        }
+
+        private void handleAllBids(Vector<ACLMessage> responses, Vector<ACLMessage> acceptances)
+        {
+            System.out.println(myAgent.getName() + " - All sealed bids received");
+
+            ACLMessage winningBid = null;
+            int highestBid = 0;
+            int secondHighestBid = reservePrice;
+
+            for (int i = 0; i < responses.size(); i++)
             {
-                ACLMessage bid = bids.elementAt(i);
+                ACLMessage response = responses.elementAt(i);
+                System.out.println(myAgent.getName() + " - " + AgentHelper.getAclMessageDisplayString(response));
+
+                if (response.getPerformative() != ACLMessage.PROPOSE)
+                    continue;
 
-                if (bid.getPerformative() == ACLMessage.PROPOSE)
+                try
                 {
-                    try
-                    {
-                        int bidAmount = Integer.parseInt(bid.getContent());
+                    int bidAmount = Integer.parseInt(response.getContent());
+                    if (bidAmount < reservePrice)
+                        continue;
 
-                        System.out.println(myAgent.getName()
-                                + " - Received bid from " + bid.getSender().getName()
-                                + " for " + bidAmount
-                        );
+                    if (bidAmount > highestBid)
+                    {
+                        if (winningBid != null)
+                            secondHighestBid = highestBid;
 
-                        if (bidAmount >= getCurrentAskingPrice())
-                            acceptableBids.add(bid);
+                        highestBid = bidAmount;
+                        winningBid = response;
                     }
-                    catch (NumberFormatException ex)
+                    else if (bidAmount > secondHighestBid)
                     {
-                        System.err.println(ex);
+                        secondHighestBid = bidAmount;
                     }
                 }
+                catch (NumberFormatException ex)
+                {
+                    System.err.println(ex);
+                }
             }
 
-            return acceptableBids;
+            // Send reject proposal messages to all other bidders
+            for (int i = 0; i < responses.size(); i++)
+            {
+                ACLMessage response = responses.elementAt(i);
+
+                if (response.getPerformative() == ACLMessage.PROPOSE && !response.equals(winningBid))
+                {
+                    ACLMessage reply = response.createReply();
+                    reply.setPerformative(ACLMessage.REJECT_PROPOSAL);
+                    acceptances.add(reply);
+                }
+            }
+
+            if (winningBid == null)
+            {
+                System.out.println(myAgent.getName() + " - No bid reached the reserve price: " + reservePrice
+                        + " - Aborting auction.");
+                System.out.println(myAgent.getName() + " - Auction over. Number of rounds: 1");
+                myGui.setInfo("Auction failure. Number of rounds: 1");
+                moveCloneToOriginalContainerAndReportAuctionResult();
+                return;
+            }
+
+            // The price of a second-price auction is final only once the parent has seen the bids of every clone
+            int price = auctionType == AuctionType.FIRST_PRICE ? highestBid : secondHighestBid;
+            winningBid.addUserDefinedParameter(PRICE, String.valueOf(price));
+            winningBid.addUserDefinedParameter(SECOND_HIGHEST_BID, String.valueOf(secondHighestBid));
+            auctionWinningBid = winningBid;
+
+            System.out.println(myAgent.getName()
+                    + " - Highest bid (winning bid): " + highestBid + " from " + winningBid.getSender().getName()
+                    + " - Price: " + price
+            );
+            System.out.println(myAgent.getName() + " - Auction over. Number of rounds: 1");
+            myGui.setInfo(myAgent.getLocalName() + " got a winning bid: " + highestBid + " - Price: " + price);
+            moveCloneToOriginalContainerAndReportAuctionResult();
+        }
+
+        @Override
+        protected void handleInform(ACLMessage inform)
+        {
+            super.handleInform(inform);
+            System.out.println(myAgent.getName() + " - " + AgentHelper.getAclMessageDisplayString(inform));
         }
     }
 
@@ -648,6 +789,9 @@ public class ArtistManagerAgent extends MobileAgent
                         + " - Best winning bid from clones  - [winner, bid] - ["
                         + bestWinningBid.getSender().getName() + ", " + bestWinningBid.getContent() + "]");
 
+                if (auctionType == AuctionType.SECOND_PRICE)
+                    setSecondPrice(bestWinningBid);
+
                 acceptBestWinningBid(bestWinningBid);
             }
             else
@@ -656,11 +800,36 @@ public class ArtistManagerAgent extends MobileAgent
             }
         }
 
+        /**
+         * The second highest bid over all clones: the highest of the second highest bid of the winning clone,
+         * which is at least the reserve price, and the highest bid of every other clone
+         * */
+        private void setSecondPrice(ACLMessage bestWinningBid)
+        {
+            try
+            {
+                int price = Integer.parseInt(bestWinningBid.getUserDefinedParameter(SECOND_HIGHEST_BID));
+                for (ACLMessage winningBid : this.winningBids)
+                {
+                    if (winningBid != bestWinningBid)
+                        price = Math.max(price, Integer.parseInt(winningBid.getContent()));
+                }
+
+                System.out.println(myAgent.getName() + " - Second highest bid over all clones: " + price);
+                bestWinningBid.addUserDefinedParameter(PRICE, String.valueOf(price));
+            }
+            catch (NumberFormatException ex)
+            {
+                System.err.println(ex);
+            }
+        }
+
         private void acceptBestWinningBid(ACLMessage bestWinningBid)
         {
-            // Send ACCEPT_PROPOSAL to the winner
+            // Send ACCEPT_PROPOSAL to the winner, with the price to pay if it was a sealed bid
             ACLMessage reply = bestWinningBid.createReply();
             reply.setPerformative(ACLMessage.ACCEPT_PROPOSAL);
+            reply.setContent(bestWinningBid.getUserDefinedParameter(PRICE));
             myAgent.send(reply);
         }
     }
@@ -696,6 +865,13 @@ public class ArtistManagerAgent extends MobileAgent
 
     //endregion
 
+    private String getAuctionProtocol()
+    {
+        return this.auctionType == AuctionType.DUTCH
+                ? FIPANames.InteractionProtocol.FIPA_DUTCH_AUCTION
+                : SEALED_BID_AUCTION;
+    }
+
     private int getInitialAskingPrice(Painting painting)
     {
         return painting.getMarketValue() * 2;
@@ -721,8 +897,7 @@ public class ArtistManagerAgent extends MobileAgent
 
     private Painting getRandomPainting()
     {
-        ArrayList<Painting> paintings = AgentHelper.generatePaintings();
-        return paintings.get(ThreadLocalRandom.current().nextInt(paintings.size()));
+        return PaintingCatalogue.getDefault().getRandomPainting(ThreadLocalRandom.current());
     }
 
     /**
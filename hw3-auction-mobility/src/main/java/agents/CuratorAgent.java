@@ -1,7 +1,8 @@
 package agents;
 
-import DTOs.BidRequestDTO;
+import DTOs.AuctionCodec;
 import artifacts.Painting;
+import artifacts.PaintingCatalogue;
 import gui.CuratorAgentGui;
 import jade.core.Agent;
 import jade.core.behaviours.CyclicBehaviour;
@@ -11,11 +12,13 @@ import jade.domain.FIPAException;
 import jade.domain.FIPANames;
 import jade.lang.acl.ACLMessage;
 import jade.lang.acl.MessageTemplate;
-import jade.lang.acl.UnreadableException;
 import jade.proto.ContractNetResponder;
 import mobility.MobileAgent;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 
 public class CuratorAgent extends MobileAgent
@@ -27,11 +30,16 @@ public class CuratorAgent extends MobileAgent
         AGGRESSIVE
     }
 
-    private ArrayList<Painting.SubjectMatter> subjectMatterInterests;
-    private ArrayList<Painting.PaintingMedium> paintingMediumInterests;
-    private ArrayList<String> artistInterests;
+    private EnumSet<Painting.SubjectMatter> subjectMatterInterests;
+    private EnumSet<Painting.PaintingMedium> paintingMediumInterests;
+    private HashSet<String> artistInterests;
     private BiddingStrategy biddingStrategy;
-    private BidRequestResponder bidRequestResponder;
+    /**
+     * The responders of the auctions this agent takes part in, keyed by conversation ID.
+     * The ACCEPT_PROPOSAL of an auction comes from the original artist manager after all its clones have reported,
+     * so a responder is kept until the same conversation starts again.
+     * */
+    private HashMap<String, BidRequestResponder> bidRequestResponders = new HashMap<>();
 
     public String getStrategy()
     {
@@ -171,16 +179,16 @@ public class CuratorAgent extends MobileAgent
 
     private void resetPaintingInterests()
     {
-        this.subjectMatterInterests = new ArrayList<>();
-        this.paintingMediumInterests = new ArrayList<>();
+        this.subjectMatterInterests = EnumSet.noneOf(Painting.SubjectMatter.class);
+        this.paintingMediumInterests = EnumSet.noneOf(Painting.PaintingMedium.class);
     }
 
     private void getPaintingInterests()
     {
         // Add subject matter and painting medium interests
 
-        this.subjectMatterInterests = new ArrayList<>();
-        this.paintingMediumInterests = new ArrayList<>();
+        this.subjectMatterInterests = EnumSet.noneOf(Painting.SubjectMatter.class);
+        this.paintingMediumInterests = EnumSet.noneOf(Painting.PaintingMedium.class);
 
         Random random = new Random();
         switch (random.nextInt(8))
@@ -228,18 +236,16 @@ public class CuratorAgent extends MobileAgent
 
         // Add artist interests
 
-        this.artistInterests = new ArrayList<>();
+        this.artistInterests = new HashSet<>();
 
-        ArrayList<String> artists = AgentHelper.getAllArtists();
+        List<String> artists = PaintingCatalogue.getDefault().getArtists();
         String randomArtist;
 
         // Let's make him interested in up to 2 artists
         randomArtist = artists.get(random.nextInt(artists.size()));
-        if (!this.artistInterests.contains(randomArtist))
-            this.artistInterests.add(randomArtist);
+        this.artistInterests.add(randomArtist);
         randomArtist = artists.get(random.nextInt(artists.size()));
-        if (!this.artistInterests.contains(randomArtist))
-            this.artistInterests.add(randomArtist);
+        this.artistInterests.add(randomArtist);
     }
 
     private void getRandomStrategy()
@@ -299,31 +305,44 @@ public class CuratorAgent extends MobileAgent
                 if (content.equals("start-of-auction"))
                 {
                     String conversationId = msg.getConversationId();
+                    String protocol = msg.getProtocol() != null
+                            ? msg.getProtocol()
+                            : FIPANames.InteractionProtocol.FIPA_DUTCH_AUCTION;
 
                     System.out.println(myAgent.getName() + " - Received start of auction message with conversation ID: "
                             + conversationId);
 
-                    if (agent.bidRequestResponder != null)
+                    // A new auction of the same painting, the previous one of this conversation is over.
+                    // Responders of other conversations stay, this agent can take part in several auctions at once
+                    BidRequestResponder previousResponder = agent.bidRequestResponders.get(conversationId);
+                    if (previousResponder != null)
+                        removeBehaviour(previousResponder);
+
+                    // The painting is only described here, not in every CFP round.
+                    // Without it the responder answers NOT_UNDERSTOOD, so the auctioneer stops asking this agent
+                    Painting painting = null;
+                    String encodedPainting = msg.getUserDefinedParameter(AuctionCodec.PAINTING);
+                    try
+                    {
+                        if (encodedPainting != null)
+                            painting = AuctionCodec.decodePainting(encodedPainting);
+                    }
+                    catch (IllegalArgumentException ex)
                     {
-                        // This is not the first auction.
-                        // Remove the previous responder behaviour.
-                        // (this agent does not necessarily know that the previous auction is over)
-                        // (can only partake in one auction at a time by doing it like this)
-                        // (this is a hack, auctioneer should send an inform message to all
-                        // participants when an auction is over, and they would then remove their
-                        // BidRequestResponder behaviours)
-                        removeBehaviour(agent.bidRequestResponder);
+                        System.err.println(ex);
                     }
 
-                    agent.bidRequestResponder = new BidRequestResponder(
+                    BidRequestResponder responder = new BidRequestResponder(
                             (CuratorAgent)myAgent,
+                            painting,
                             MessageTemplate.and(
-                                    MessageTemplate.MatchProtocol(FIPANames.InteractionProtocol.FIPA_DUTCH_AUCTION),
+                                    MessageTemplate.MatchProtocol(protocol),
                                     MessageTemplate.MatchConversationId(conversationId)
                             )
                     );
 
-                    addBehaviour(agent.bidRequestResponder);
+                    agent.bidRequestResponders.put(conversationId, responder);
+                    addBehaviour(responder);
                 }
             }
             else
@@ -336,11 +355,22 @@ public class CuratorAgent extends MobileAgent
     private class BidRequestResponder extends ContractNetResponder
     {
         private CuratorAgent agent;
+        private Painting painting;
+        // Computed once per auction, every CFP round is answered by comparing the asking price with it
+        private double strategyMultiplier;
+        private int amountWillingToPay;
 
-        public BidRequestResponder(CuratorAgent agent, MessageTemplate mt)
+        public BidRequestResponder(CuratorAgent agent, Painting painting, MessageTemplate mt)
         {
             super(agent, mt);
             this.agent = agent;
+            this.painting = painting;
+
+            if (painting != null)
+            {
+                this.strategyMultiplier = getStrategyMultiplier(painting);
+                this.amountWillingToPay = (int)(painting.getMarketValue() * this.strategyMultiplier);
+            }
         }
 
         @Override
@@ -348,26 +378,48 @@ public class CuratorAgent extends MobileAgent
         {
             ACLMessage reply = cfp.createReply();
 
-            try
+            if (painting == null)
             {
-                BidRequestDTO dto = (BidRequestDTO) cfp.getContentObject();
+                reply.setPerformative(ACLMessage.NOT_UNDERSTOOD);
+                reply.setContent("not understood");
+                agent.myGui.setInfo("Not understood");
+                return reply;
+            }
 
-                double strategyMultiplier = getStrategyMultiplier(dto.painting);
-                double amountWillingToPay = dto.painting.getMarketValue() * strategyMultiplier;
+            try
+            {
+                int askingPrice = AuctionCodec.decodeAskingPrice(cfp.getContent());
 
                 System.out.println(myAgent.getName()
-                        + " - Received asking price for painting " + dto.painting.getName() + ": " + dto.askingPrice
-                        + " - Willing to pay: " + (int)amountWillingToPay
+                        + " - Received asking price for painting " + painting.getName() + ": " + askingPrice
+                        + " - Willing to pay: " + amountWillingToPay
                         + " - Strategy multiplier: " + strategyMultiplier
                 );
 
-                if ((double)dto.askingPrice <= amountWillingToPay)
+                if (ArtistManagerAgent.SEALED_BID_AUCTION.equals(cfp.getProtocol()))
+                {
+                    // Sealed-bid auction, the asking price is the reserve price.
+                    // There is only one round, so bid the most I am willing to pay
+                    if (askingPrice <= amountWillingToPay)
+                    {
+                        reply.setPerformative(ACLMessage.PROPOSE);
+                        reply.setContent(String.valueOf(amountWillingToPay));
+                        agent.myGui.setInfo("Sealed bid placed: " + amountWillingToPay);
+                    }
+                    else
+                    {
+                        reply.setPerformative(ACLMessage.REFUSE);
+                        reply.setContent("Reserve price too high");
+                        agent.myGui.setInfo("Bid request refused");
+                    }
+                }
+                else if (askingPrice <= amountWillingToPay)
                 {
                     // I am willing to pay the asking price or higher,
                     // let's bid the asking price
                     reply.setPerformative(ACLMessage.PROPOSE);
-                    reply.setContent(String.valueOf(dto.askingPrice));
-                    agent.myGui.setInfo("Bid placed: " + dto.askingPrice);
+                    reply.setContent(String.valueOf(askingPrice));
+                    agent.myGui.setInfo("Bid placed: " + askingPrice);
                 }
                 else
                 {
@@ -378,7 +430,7 @@ public class CuratorAgent extends MobileAgent
                     agent.myGui.setInfo("Bid request refused");
                 }
             }
-            catch (UnreadableException|NumberFormatException ex)
+            catch (NumberFormatException ex)
             {
                 System.err.println(ex);
                 reply.setPerformative(ACLMessage.NOT_UNDERSTOOD);
@@ -397,7 +449,9 @@ public class CuratorAgent extends MobileAgent
             reply.setPerformative(ACLMessage.INFORM);
             reply.setContent("Thank you.");
 
-            System.out.println(myAgent.getName() + " - Won the auction. Strategy: " + biddingStrategy);
+            // The price is only set in sealed-bid auctions, in a Dutch auction I pay the asking price I bid
+            System.out.println(myAgent.getName() + " - Won the auction. Strategy: " + biddingStrategy
+                    + (accept.getContent() != null ? " - Price: " + accept.getContent() : ""));
 
             agent.myGui.setInfo("Bid accepted - winner");
 
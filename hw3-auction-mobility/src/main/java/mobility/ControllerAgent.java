@@ -33,6 +33,11 @@ public class ControllerAgent extends GuiAgent {
    private int agentCloneCntArtistManager = 0;
    private int agentCloneCntCurator = 0;
 
+   /**
+    * Auction type of the new artist managers, the optional argument of the controller agent
+    */
+   private String auctionType;
+
    private int command;
    transient protected ControllerAgentGui myGui;
 
@@ -52,6 +57,9 @@ public class ControllerAgent extends GuiAgent {
    protected void setup() {
 // ------------------------
 
+      Object[] controllerArgs = getArguments();
+      auctionType = controllerArgs != null && controllerArgs.length == 1 ? (String)controllerArgs[0] : null;
+
 	  // Register language and ontology
 	  getContentManager().registerLanguage(new SLCodec());
 	  getContentManager().registerOntology(MobilityOntology.getInstance());
@@ -117,6 +125,7 @@ public class ControllerAgent extends GuiAgent {
          try {
             Object[] args = new Object[2];
             args[0] = getAID();
+            args[1] = auctionType;
             String name = ARTISTMANAGER_AGENT_NAME+agentCntArtistManager++;
             a = home.createNewAgent(name, ArtistManagerAgent.class.getName(), args);
 	        a.start();
@@ -0,0 +1,225 @@
+package agents;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the hot path of a queen: checking squares and finding the next safe column of its row
+ * on a partial board, plus encoding and decoding the SET_POSITION content and rendering the board.
+ * The list scans the queens used before the bitboard placement state are kept as baselines.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlacementBenchmark
+{
+    @Param({"8", "16", "32", "64", "128"})
+    private int n;
+
+    private PlacementState placementState;
+    private ArrayList<Point> queenPositions;
+    private long[] triedColumns;
+    private ArrayList<Point> triedPositions;
+    private byte[] encodedRequest;
+    private NQueensProblem problem;
+    private BlackholeWriter boardWriter;
+    /**
+     * The row searched for a safe column, the first row without a queen
+     * */
+    private int row;
+
+    /**
+     * Build a realistic partial board: place queens row by row on a random safe column
+     * until a row has no safe column left, which is where the queens start backtracking.
+     * The queen of the row before the dead end is taken off again and that row is the one searched.
+     * */
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(42);
+        placementState = new PlacementState(n);
+        queenPositions = new ArrayList<>();
+
+        row = 0;
+        while (row < n - 1)
+        {
+            long[] safeColumns = placementState.getSafeColumns(row);
+            int safeColumnCount = BitBoard.cardinality(safeColumns);
+            if (safeColumnCount == 0)
+                break;
+
+            int column = BitBoard.nextSetBit(safeColumns, 0);
+            for (int skip = random.nextInt(safeColumnCount); skip > 0; skip--)
+                column = BitBoard.nextSetBit(safeColumns, column + 1);
+
+            placementState.place(row, column);
+            queenPositions.add(new Point(column, row));
+            row++;
+        }
+
+        if (row > 0)
+        {
+            row--;
+            placementState.remove(row);
+            queenPositions.remove(queenPositions.size() - 1);
+        }
+
+        // Half of the safe columns of the searched row have already been tried
+        triedColumns = BitBoard.create(n);
+        triedPositions = new ArrayList<>();
+        long[] safeColumns = placementState.getSafeColumns(row);
+        int column = BitBoard.nextSetBit(safeColumns, 0);
+        for (int i = 0; column >= 0; i++)
+        {
+            if (i % 2 == 0)
+            {
+                BitBoard.set(triedColumns, column);
+                triedPositions.add(new Point(column, row));
+            }
+            column = BitBoard.nextSetBit(safeColumns, column + 1);
+        }
+
+        encodedRequest = NQueensCodec.encode(new SetPositionRequest(placementState));
+        problem = new NQueensProblem(n);
+        boardWriter = new BlackholeWriter();
+    }
+
+    @Benchmark
+    public void isSafe(Blackhole blackhole)
+    {
+        for (int column = 0; column < n; column++)
+            blackhole.consume(placementState.isSafe(row, column));
+    }
+
+    @Benchmark
+    public int nextSafeColumn()
+    {
+        return placementState.nextSafeColumn(row, triedColumns);
+    }
+
+    @Benchmark
+    public long[] safeColumns()
+    {
+        return placementState.getSafeColumns(row);
+    }
+
+    @Benchmark
+    public long[] earliestAttackers()
+    {
+        return placementState.getEarliestAttackers(row);
+    }
+
+    /**
+     * Baseline: the ArrayList<Point> scans the queens did before the bitboard placement state
+     * */
+    @Benchmark
+    public int listScanFindSafePosition()
+    {
+        Point pointToTry = new Point(0, row);
+        for (int x = 0; x < n; x++)
+        {
+            pointToTry.setLocation(x, row);
+            if (!triedPositions.contains(pointToTry) && listScanIsPointSafe(pointToTry))
+                return x;
+        }
+
+        return -1;
+    }
+
+    private boolean listScanIsPointSafe(Point position)
+    {
+        for (Point filledPosition : queenPositions)
+        {
+            if (position.x == filledPosition.x)
+                return false;
+
+            if (Math.abs(position.y - filledPosition.y) == Math.abs(position.x - filledPosition.x))
+                return false;
+        }
+
+        return true;
+    }
+
+    @Benchmark
+    public byte[] encodeRequest()
+    {
+        return NQueensCodec.encode(new SetPositionRequest(placementState));
+    }
+
+    @Benchmark
+    public SetPositionRequest decodeRequest()
+    {
+        return NQueensCodec.decodeRequest(encodedRequest);
+    }
+
+    /**
+     * Render the whole board, all n rows of n squares, into a reused writer that only hands the chars to the blackhole
+     * */
+    @Benchmark
+    public void writeBoard(Blackhole blackhole) throws IOException
+    {
+        boardWriter.blackhole = blackhole;
+        problem.write(placementState, boardWriter);
+    }
+
+    /**
+     * Baseline: printChessboard, which built the board with a list scan for every square
+     * */
+    @Benchmark
+    public String listScanPrintChessboard()
+    {
+        StringBuilder sb = new StringBuilder();
+        Point pointToTest = new Point();
+
+        for (int y = 0; y < n; y++)
+        {
+            StringBuilder sbRow = new StringBuilder();
+
+            for (int x = 0; x < n; x++)
+            {
+                pointToTest.setLocation(x, y);
+
+                if (queenPositions.contains(pointToTest))
+                    sbRow.append("[X] ");
+                else
+                    sbRow.append("[ ] ");
+            }
+
+            sb.append(sbRow.toString() + "\n");
+        }
+
+        return sb.toString();
+    }
+
+    private static class BlackholeWriter extends Writer
+    {
+        private Blackhole blackhole;
+
+        @Override
+        public void write(char[] chars, int offset, int length)
+        {
+            blackhole.consume(chars);
+            blackhole.consume(length);
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package agents;
+
+/**
+ * Helpers for bitsets stored in long arrays, 64 bits per word.
+ * Used for the column, diagonal and anti-diagonal occupancy of the board and for the tried columns of a row.
+ * */
+public final class BitBoard
+{
+    private BitBoard()
+    {
+    }
+
+    /**
+     * Create a bitset that can hold the given number of bits, all cleared
+     * */
+    public static long[] create(int bitCount)
+    {
+        return new long[Math.max(1, (bitCount + 63) >>> 6)];
+    }
+
+    public static boolean get(long[] bits, int index)
+    {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public static void set(long[] bits, int index)
+    {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    public static void clear(long[] bits, int index)
+    {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    public static void clearAll(long[] bits)
+    {
+        for (int i = 0; i < bits.length; i++)
+            bits[i] = 0;
+    }
+
+    public static boolean isEmpty(long[] bits)
+    {
+        for (long word : bits)
+        {
+            if (word != 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    public static int cardinality(long[] bits)
+    {
+        int count = 0;
+        for (long word : bits)
+            count += Long.bitCount(word);
+
+        return count;
+    }
+
+    /**
+     * Get the index of the first set bit at or after fromIndex, -1 if there is none
+     * */
+    public static int nextSetBit(long[] bits, int fromIndex)
+    {
+        int wordIndex = fromIndex >>> 6;
+        if (wordIndex >= bits.length)
+            return -1;
+
+        long word = bits[wordIndex] & (-1L << fromIndex);
+
+        while (true)
+        {
+            if (word != 0)
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+
+            if (++wordIndex == bits.length)
+                return -1;
+
+            word = bits[wordIndex];
+        }
+    }
+
+    /**
+     * Get the index of the last set bit at or before fromIndex, -1 if there is none
+     * */
+    public static int previousSetBit(long[] bits, int fromIndex)
+    {
+        if (fromIndex < 0)
+            return -1;
+
+        int wordIndex = Math.min(fromIndex >>> 6, bits.length - 1);
+        long word = (fromIndex >>> 6) > wordIndex ? bits[wordIndex] : bits[wordIndex] & (-1L >>> (63 - (fromIndex & 63)));
+
+        while (true)
+        {
+            if (word != 0)
+                return (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(word);
+
+            if (wordIndex-- == 0)
+                return -1;
+
+            word = bits[wordIndex];
+        }
+    }
+
+    /**
+     * Get the 64 bits of the bitset starting at bit index from, i.e. (bits >>> from) restricted to one word.
+     * Bits past the end of the bitset read as zero.
+     * */
+    public static long wordAt(long[] bits, int from)
+    {
+        int wordIndex = from >>> 6;
+        int offset = from & 63;
+
+        long low = wordIndex < bits.length ? bits[wordIndex] >>> offset : 0;
+        if (offset == 0 || wordIndex + 1 >= bits.length)
+            return low;
+
+        return low | (bits[wordIndex + 1] << (64 - offset));
+    }
+
+    /**
+     * Mask of the valid bits in the given word of a bitset holding bitCount bits
+     * */
+    public static long validMask(int bitCount, int wordIndex)
+    {
+        int remaining = bitCount - (wordIndex << 6);
+        if (remaining >= 64)
+            return -1L;
+        if (remaining <= 0)
+            return 0;
+
+        return (1L << remaining) - 1;
+    }
+}
@@ -0,0 +1,126 @@
+package agents;
+
+import java.io.*;
+
+/**
+ * A consistent cut of the chain search: the SET_POSITION request that was on its way at a given step,
+ * i.e. the assignment and the variable of the agent it was sent to, the value agent 0 started the search with
+ * and the number of solutions found so far. The tried values of the agents before the recipient follow from
+ * the assignment and the first value, so that is all that is needed to continue the search.
+ * Checkpoints are appended to a log file as length-prefixed records, a torn record at the end is ignored.
+ * */
+public class Checkpoint
+{
+    private long step;
+    private int recipientVariable;
+    private int firstValue;
+    private long solutionCount;
+    private CspAssignment assignment;
+
+    public Checkpoint(long step, int recipientVariable, int firstValue, long solutionCount, CspAssignment assignment)
+    {
+        this.step = step;
+        this.recipientVariable = recipientVariable;
+        this.firstValue = firstValue;
+        this.solutionCount = solutionCount;
+        this.assignment = assignment;
+    }
+
+    /**
+     * Number of SET_POSITION requests sent in the search up to and including this one
+     * */
+    public long getStep()
+    {
+        return step;
+    }
+
+    public int getRecipientVariable()
+    {
+        return recipientVariable;
+    }
+
+    /**
+     * The first value agent 0 tried, in chain mode it is random instead of the first in its value order
+     * */
+    public int getFirstValue()
+    {
+        return firstValue;
+    }
+
+    /**
+     * All mode: the number of solutions the last agent had found when the request was sent
+     * */
+    public long getSolutionCount()
+    {
+        return solutionCount;
+    }
+
+    public CspAssignment getAssignment()
+    {
+        return assignment;
+    }
+
+    /**
+     * Append the checkpoint to the log file with a single write
+     * */
+    public void append(String path, CspCodec codec) throws IOException
+    {
+        byte[] record = codec.encode(this);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(record.length + 4);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(record.length);
+        out.write(record);
+
+        try (FileOutputStream file = new FileOutputStream(path, true))
+        {
+            file.write(bytes.toByteArray());
+        }
+    }
+
+    /**
+     * Read the last complete checkpoint of the log file, null if there is none.
+     * Throws IllegalArgumentException if the checkpoint is of a problem with another number of variables.
+     * */
+    public static Checkpoint readLast(String path, CspCodec codec) throws IOException
+    {
+        if (!new File(path).exists())
+            return null;
+
+        byte[] lastRecord = null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path))))
+        {
+            while (true)
+            {
+                byte[] record;
+                try
+                {
+                    record = new byte[in.readInt()];
+                    in.readFully(record);
+                }
+                catch (EOFException ex)
+                {
+                    // End of the log, or a record that was only partly written
+                    break;
+                }
+
+                lastRecord = record;
+            }
+        }
+
+        return lastRecord != null ? codec.decodeCheckpoint(lastRecord) : null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Checkpoint{" +
+                "step=" + step +
+                ", recipientVariable=" + recipientVariable +
+                ", firstValue=" + firstValue +
+                ", solutionCount=" + solutionCount +
+                ", assignment=" + assignment +
+                '}';
+    }
+}
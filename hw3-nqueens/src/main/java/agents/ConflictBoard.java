@@ -0,0 +1,124 @@
+package agents;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * A full board for the min-conflicts search: one queen in every row, queens may attack each other.
+ * The number of queens on each column, diagonal and anti-diagonal is counted, so the conflicts of a square
+ * are three lookups and moving a queen is six updates.
+ * */
+public class ConflictBoard
+{
+    private int n;
+    private int[] columns;
+    private int[] columnCounts;
+    /**
+     * Indexed by column - row + n - 1
+     * */
+    private int[] diagonalCounts;
+    /**
+     * Indexed by column + row
+     * */
+    private int[] antiDiagonalCounts;
+
+    public ConflictBoard(int[] columns)
+    {
+        this.n = columns.length;
+        this.columns = columns.clone();
+        this.columnCounts = new int[n];
+        this.diagonalCounts = new int[2 * n - 1];
+        this.antiDiagonalCounts = new int[2 * n - 1];
+
+        for (int row = 0; row < n; row++)
+            count(row, this.columns[row], 1);
+    }
+
+    public int getN()
+    {
+        return n;
+    }
+
+    public int getColumn(int row)
+    {
+        return columns[row];
+    }
+
+    public int[] getColumns()
+    {
+        return columns.clone();
+    }
+
+    public void move(int row, int column)
+    {
+        count(row, columns[row], -1);
+        columns[row] = column;
+        count(row, column, 1);
+    }
+
+    private void count(int row, int column, int delta)
+    {
+        columnCounts[column] += delta;
+        diagonalCounts[column - row + n - 1] += delta;
+        antiDiagonalCounts[column + row] += delta;
+    }
+
+    /**
+     * Number of queens in other rows attacking a square of the given row
+     * */
+    public int getConflicts(int row, int column)
+    {
+        int conflicts = columnCounts[column] + diagonalCounts[column - row + n - 1] + antiDiagonalCounts[column + row];
+
+        // Don't count the queen of the row itself
+        if (columns[row] == column)
+            conflicts -= 3;
+
+        return conflicts;
+    }
+
+    public boolean isConflicted(int row)
+    {
+        return getConflicts(row, columns[row]) > 0;
+    }
+
+    public ArrayList<Integer> getConflictedRows()
+    {
+        ArrayList<Integer> conflictedRows = new ArrayList<>();
+        for (int row = 0; row < n; row++)
+        {
+            if (isConflicted(row))
+                conflictedRows.add(row);
+        }
+
+        return conflictedRows;
+    }
+
+    /**
+     * Get the column of the row with the fewest conflicts, ties are broken randomly
+     * */
+    public int getMinConflictColumn(int row, Random random)
+    {
+        int bestColumn = columns[row];
+        int bestConflicts = Integer.MAX_VALUE;
+        int tieCount = 0;
+
+        for (int column = 0; column < n; column++)
+        {
+            int conflicts = getConflicts(row, column);
+
+            if (conflicts < bestConflicts)
+            {
+                bestColumn = column;
+                bestConflicts = conflicts;
+                tieCount = 1;
+            }
+            else if (conflicts == bestConflicts && random.nextInt(++tieCount) == 0)
+            {
+                bestColumn = column;
+            }
+        }
+
+        return bestColumn;
+    }
+}
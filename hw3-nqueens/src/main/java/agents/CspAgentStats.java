@@ -0,0 +1,135 @@
+package agents;
+
+import java.io.Serializable;
+
+/**
+ * Message and latency counters of an agent in the chain, sent to agent 0 when it gathers the stats of a run.
+ * Hop latencies are kept in a histogram with power of two buckets: bucket i counts the hops that took
+ * [2^i, 2^(i+1)) microseconds, bucket 0 also the hops under a microsecond.
+ * */
+public class CspAgentStats implements Serializable
+{
+    public static final int LATENCY_BUCKETS = 32;
+
+    /**
+     * SET_POSITION requests sent to the successor
+     * */
+    private long forwardRequests;
+    /**
+     * SET_POSITION requests sent back to an agent before me, i.e. backtracks and backjumps
+     * */
+    private long backtracks;
+    private long positionsTried;
+    private long bytesSerialized;
+    private long[] hopLatencies;
+
+    public CspAgentStats()
+    {
+        this.hopLatencies = new long[LATENCY_BUCKETS];
+    }
+
+    public long getForwardRequests()
+    {
+        return forwardRequests;
+    }
+
+    public long getBacktracks()
+    {
+        return backtracks;
+    }
+
+    public long getPositionsTried()
+    {
+        return positionsTried;
+    }
+
+    public long getBytesSerialized()
+    {
+        return bytesSerialized;
+    }
+
+    public long getHopCount()
+    {
+        long hopCount = 0;
+        for (long count : hopLatencies)
+            hopCount += count;
+
+        return hopCount;
+    }
+
+    public void addForwardRequest(int bytes)
+    {
+        forwardRequests++;
+        bytesSerialized += bytes;
+    }
+
+    public void addBacktrack(int bytes)
+    {
+        backtracks++;
+        bytesSerialized += bytes;
+    }
+
+    public void addPositionTried()
+    {
+        positionsTried++;
+    }
+
+    public void addHopLatency(long nanos)
+    {
+        long micros = Math.max(1, nanos / 1000);
+        int bucket = Math.min(LATENCY_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        hopLatencies[bucket]++;
+    }
+
+    /**
+     * Add the counters of another agent to these
+     * */
+    public void add(CspAgentStats other)
+    {
+        forwardRequests += other.forwardRequests;
+        backtracks += other.backtracks;
+        positionsTried += other.positionsTried;
+        bytesSerialized += other.bytesSerialized;
+
+        for (int i = 0; i < LATENCY_BUCKETS; i++)
+            hopLatencies[i] += other.hopLatencies[i];
+    }
+
+    /**
+     * Get the upper bound in microseconds of the histogram bucket holding the given percentile (0-100) of the hops,
+     * 0 if no hops were recorded
+     * */
+    public long getHopLatencyPercentile(double percentile)
+    {
+        long hopCount = getHopCount();
+        if (hopCount == 0)
+            return 0;
+
+        long rank = (long)Math.ceil(hopCount * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++)
+        {
+            seen += hopLatencies[i];
+            if (seen >= rank && hopLatencies[i] > 0)
+                return 1L << (i + 1);
+        }
+
+        return 1L << LATENCY_BUCKETS;
+    }
+
+    @Override
+    public String toString()
+    {
+        long requests = forwardRequests + backtracks;
+
+        return "Requests: " + requests
+                + " - Forward: " + forwardRequests
+                + " - Backtracks: " + backtracks
+                + " - Positions tried: " + positionsTried
+                + " - Bytes: " + bytesSerialized
+                + " (" + (requests > 0 ? bytesSerialized / requests : 0) + " per request)"
+                + " - Hop latency p50: <" + getHopLatencyPercentile(50) + " us"
+                + " p99: <" + getHopLatencyPercentile(99) + " us"
+                + " max: <" + getHopLatencyPercentile(100) + " us";
+    }
+}
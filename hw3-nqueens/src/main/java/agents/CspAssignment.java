@@ -0,0 +1,48 @@
+package agents;
+
+/**
+ * The values assigned so far to the variables of a constraint satisfaction problem, as seen by the agents
+ * of a DistributedCspAgent chain. Variable i is owned by the agent with ID i and the agents assign their variables
+ * in ID order. Values are 0 .. domain size - 1.
+ * Implementations keep whatever index they need to answer the consistency questions quickly,
+ * e.g. the occupancy bitsets of PlacementState for N-Queens.
+ * */
+public interface CspAssignment
+{
+    int EMPTY = -1;
+
+    int getVariableCount();
+
+    /**
+     * Number of assigned variables
+     * */
+    int size();
+
+    boolean isAssigned(int variable);
+
+    /**
+     * Get the value of a variable, EMPTY if it is not assigned
+     * */
+    int getValue(int variable);
+
+    /**
+     * Get a copy of the value of each variable, EMPTY for variables that are not assigned
+     * */
+    int[] getValues();
+
+    void assign(int variable, int value);
+
+    void unassign(int variable);
+
+    /**
+     * Get the first value of a variable at or after fromValue, wrapping around to the values before it, that is
+     * consistent with the assigned variables and not in the excluded bitset. EMPTY if there is none
+     * */
+    int nextConsistentValue(int variable, long[] excludedValues, int fromValue);
+
+    /**
+     * Get the assigned variables that rule out values of the given variable, as a bitset.
+     * Every inconsistent value must be ruled out by one of them, they are the conflict set used for backjumping.
+     * */
+    long[] getCulprits(int variable);
+}
@@ -0,0 +1,26 @@
+package agents;
+
+import java.util.List;
+
+/**
+ * Wire format of the messages of a chain of DistributedCspAgents, supplied by the subclass for its problem.
+ * NQueensCspCodec writes the compact NQueensCodec format, which works for any CspAssignment.
+ * */
+public interface CspCodec
+{
+    byte[] encode(SetPositionRequest request);
+
+    SetPositionRequest decodeRequest(byte[] content);
+
+    /**
+     * Checkpoints are sent to the other agents on restore and appended to the checkpoint log
+     * */
+    byte[] encode(Checkpoint checkpoint);
+
+    Checkpoint decodeCheckpoint(byte[] content);
+
+    /**
+     * A batch of complete assignments, each as its value vector
+     * */
+    byte[] encodeSolutionBatch(List<int[]> solutions);
+}
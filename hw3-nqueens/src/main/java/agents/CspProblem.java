@@ -0,0 +1,28 @@
+package agents;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The constraints of a problem solved by a chain of DistributedCspAgents, one agent per variable.
+ * */
+public interface CspProblem
+{
+    int getVariableCount();
+
+    /**
+     * Number of values of every variable, values are 0 .. domain size - 1
+     * */
+    int getDomainSize();
+
+    /**
+     * Create an assignment without any assigned variables
+     * */
+    CspAssignment createAssignment();
+
+    /**
+     * Stream the full human readable form of a complete assignment to the writer, e.g. the board for N-Queens.
+     * Only done on request, solutions are printed as their value vector by default.
+     * */
+    void write(CspAssignment assignment, Writer writer) throws IOException;
+}
@@ -0,0 +1,1289 @@
+package agents;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.OneShotBehaviour;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.Property;
+import jade.domain.FIPAAgentManagement.SearchConstraints;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+import jade.lang.acl.UnreadableException;
+import jade.proto.SubscriptionInitiator;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * One variable of a constraint satisfaction problem, solved by a chain of these agents with asynchronous
+ * backtracking and conflict-directed backjumping. Agent i owns variable i and the agents assign their variables
+ * in ID order by passing SET_POSITION requests, which carry the assignment so far.
+ * The constraints come from the CspProblem of the subclass and the message format from its CspCodec, as do
+ * printing a solution and finding the solution collector. Everything else is shared: the ring directory,
+ * draining the mailbox, all-solutions enumeration, stats, portfolios and checkpoints.
+ * QueenAgent is the N-Queens instance.
+ * */
+public abstract class DistributedCspAgent extends Agent
+{
+    private final String SET_POSITION_REQUEST = "set-position";
+    private final String SEARCH_COMPLETE = "search-complete";
+    private final int SOLUTION_BATCH_SIZE = 100;
+    /**
+     * Ontologies of the solution batches streamed to the collector in all mode
+     * */
+    public static final String SOLUTION_BATCH = "solution-batch";
+    public static final String LAST_SOLUTION_BATCH = "last-solution-batch";
+
+    private final String AGENT_STATS = "agent-stats";
+    /**
+     * User defined parameter of a SET_POSITION request holding the System.nanoTime() it was sent at.
+     * Hop latencies are only meaningful between containers in the same JVM.
+     * */
+    private final String SENT_AT = "sent-at";
+    private final String ID_PROPERTY = "ID";
+    private final String CHAIN_PROPERTY = "CHAIN";
+    /**
+     * Checkpoints: agent 0 sends the last checkpoint to the other agents as a RESTORE request.
+     * Every SET_POSITION request carries its step, the number of requests sent in the search so far,
+     * as a user defined parameter. With checkpoints on it also carries the first value of agent 0 and the number
+     * of solutions found so far, so whichever agent writes a checkpoint knows them.
+     * */
+    private final String RESTORE = "restore";
+    private final String STEP = "step";
+    private final String FIRST_VALUE = "first-value";
+    private final String SOLUTION_COUNT = "solution-count";
+    private final long DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+    /**
+     * Send a QUERY_REF with the protocol name followed by this suffix as the conversation ID to agent 0
+     * to get the summary of the stats of all agents, e.g. "nqueens-stats".
+     * */
+    public static final String STATS_CONVERSATION_SUFFIX = "-stats";
+
+    /**
+     * Search modes, given as the optional third command line argument.
+     * In chain mode the agents find a solution by passing SET_POSITION requests along the chain.
+     * In all mode the chain exhausts the search space and the last agent streams every solution
+     * to the solution collector, e.g. the SolutionCollectorAgent.
+     * */
+    public static final String MODE_CHAIN = "chain";
+    public static final String MODE_ALL = "all";
+
+    private AID predecessor;
+    private AID successor;
+    /**
+     * Ring directory, the AID of every agent indexed by ID.
+     * */
+    private AID[] directory;
+    /**
+     * My ID, the variable I own.
+     * */
+    private int id;
+    /**
+     * Total number of agents, one per variable.
+     * */
+    private int n;
+    private String mode;
+    private CspProblem problem;
+    private CspCodec codec;
+    /**
+     * Print every value and request. Only in chain mode, it would dominate the all-solutions search.
+     * */
+    private boolean verbose;
+    private int value;
+    /**
+     * Values of my variable that I have already tried, as a bitset.
+     * */
+    private long[] triedValues;
+    /**
+     * Variables (as a bitset) whose values caused the values I tried to fail further down the chain,
+     * collected from the conflict sets my successors jumped back to me with.
+     * */
+    private long[] conflictSet;
+    /**
+     * All mode, last agent only: collector agent and the solutions not yet sent to it.
+     * The solution count is the last agent's, the other agents keep the count they last saw for the checkpoints.
+     * */
+    private AID solutionCollector;
+    private ArrayList<int[]> solutionBatch;
+    private long solutionCount;
+    /**
+     * Conversation IDs, derived from the protocol name. The SET_POSITION requests of a portfolio chain
+     * have the chain appended.
+     * */
+    private String conversationId;
+    private String directoryConversationId;
+    private String statsConversationId;
+    private String portfolioConversationId;
+    private String solutionsConversationId;
+    private String resultConversationId;
+    /**
+     * Portfolio: the chain I belong to, null if I am not part of a portfolio
+     * */
+    private String chain;
+    /**
+     * Seeded with the seed option, which also rotates the order in which I try the values of my variable
+     * */
+    private Random random;
+    private int valueOffset;
+    /**
+     * Checkpoint log file, null if checkpoints are off, and the number of steps between checkpoints.
+     * The step of the last SET_POSITION request I received.
+     * */
+    private String checkpointPath;
+    private long checkpointInterval;
+    private long step;
+    /**
+     * The first value agent 0 tried in this search, known to the other agents if checkpoints are on
+     * */
+    private int firstValue;
+    /**
+     * Optional key=value command line arguments after the mode.
+     * launcher - local name of the agent to report the result to
+     * */
+    private HashMap<String, String> options;
+    private CspAgentStats stats;
+    /**
+     * Agent 0 only: the stats gathered so far, the number of agents that haven't replied yet
+     * and the queries waiting for the summary.
+     * */
+    private CspAgentStats gatheredStats;
+    private int pendingStatsReplies;
+    private ArrayList<ACLMessage> statsQueries;
+
+    //region Problem
+
+    /**
+     * Create the problem once the number of variables is known
+     * */
+    protected abstract CspProblem createProblem(int n);
+
+    /**
+     * Create the wire format of the messages of the chain, once the problem is created
+     * */
+    protected abstract CspCodec createCodec(CspProblem problem);
+
+    /**
+     * The last agent found a solution in chain mode
+     * */
+    protected abstract void printSolution(CspAssignment assignment);
+
+    /**
+     * All mode, last agent: find the agent to stream the solutions to, null if they are only counted
+     * */
+    protected AID findSolutionCollector()
+    {
+        return null;
+    }
+
+    /**
+     * Prefix of the conversation IDs, e.g. "nqueens"
+     * */
+    protected abstract String getProtocolName();
+
+    protected abstract String getServiceType();
+
+    protected abstract String getServiceName();
+
+    protected boolean isSupportedMode(String mode)
+    {
+        return mode.equals(MODE_CHAIN) || mode.equals(MODE_ALL);
+    }
+
+    /**
+     * Read the options of the subclass, after the options of the chain are read
+     * */
+    protected void readOptions(Map<String, String> options)
+    {
+    }
+
+    /**
+     * Mark values of my variable as tried before the search (or a restored search) starts, e.g. for symmetry breaking
+     * */
+    protected void excludeValues(long[] triedValues)
+    {
+    }
+
+    //endregion
+
+    protected void setup()
+    {
+        // Get command line arguments
+        Object[] args = getArguments();
+        if (args != null && args.length >= 2)
+        {
+            try
+            {
+                this.id = Integer.parseInt((String)args[0]);
+                this.n = Integer.parseInt((String)args[1]);
+                this.mode = args.length >= 3 ? (String)args[2] : MODE_CHAIN;
+
+                if (!isSupportedMode(this.mode))
+                    throw new IllegalArgumentException("Unknown mode: " + this.mode);
+
+                this.options = new HashMap<>();
+                for (int i = 3; i < args.length; i++)
+                {
+                    String[] option = ((String)args[i]).split("=", 2);
+                    if (option.length != 2)
+                        throw new IllegalArgumentException("Invalid option: " + args[i]);
+
+                    this.options.put(option[0], option[1]);
+                }
+
+                this.problem = createProblem(this.n);
+                this.codec = createCodec(this.problem);
+
+                this.chain = this.options.get("chain");
+                this.conversationId = this.chain != null
+                        ? getProtocolName() + "-" + this.chain
+                        : getProtocolName();
+                this.directoryConversationId = getProtocolName() + "-directory";
+                this.statsConversationId = getProtocolName() + STATS_CONVERSATION_SUFFIX;
+                this.portfolioConversationId = getProtocolName() + "-portfolio";
+                this.solutionsConversationId = getProtocolName() + "-solutions";
+                this.resultConversationId = getProtocolName() + "-result";
+
+                this.checkpointPath = this.options.get("checkpoint");
+                this.checkpointInterval = this.options.containsKey("checkpointInterval")
+                        ? Long.parseLong(this.options.get("checkpointInterval"))
+                        : DEFAULT_CHECKPOINT_INTERVAL;
+                if (this.checkpointInterval < 1)
+                    throw new IllegalArgumentException("checkpointInterval must be positive");
+
+                int domainSize = this.problem.getDomainSize();
+                String seed = this.options.get("seed");
+                if (seed != null)
+                {
+                    this.random = new Random(Long.parseLong(seed) * this.n + this.id);
+                    this.valueOffset = this.random.nextInt(domainSize);
+                }
+                else
+                {
+                    this.random = new Random();
+                    this.valueOffset = 0;
+                }
+
+                readOptions(this.options);
+            }
+            catch (Exception ex)
+            {
+                System.err.println(ex);
+                System.out.println(getName() + " - Invalid command line arguments. Should be: [ID],[N] or [ID],[N],[MODE],[KEY=VALUE]...");
+                return;
+            }
+        }
+        else
+        {
+            System.out.println(getName() + " - Invalid command line arguments. Should be: [ID],[N] or [ID],[N],[MODE],[KEY=VALUE]...");
+            return;
+        }
+
+        registerServices();
+
+        this.triedValues = BitBoard.create(this.problem.getDomainSize());
+        this.conflictSet = BitBoard.create(this.n);
+        this.value = CspAssignment.EMPTY;
+        this.verbose = this.mode.equals(MODE_CHAIN);
+        this.solutionBatch = new ArrayList<>();
+        this.solutionCount = 0;
+        this.stats = new CspAgentStats();
+        this.statsQueries = new ArrayList<>();
+
+        startAgent();
+
+        if (this.chain != null)
+            this.addBehaviour(new PortfolioCancelServer());
+
+        System.out.println(getClass().getSimpleName() + " " + getAID().getName() + " is ready. ID: " + this.id
+                + " n: " + this.n + " mode: " + this.mode);
+    }
+
+    protected void takeDown()
+    {
+        deregisterServices();
+        System.out.println(getClass().getSimpleName() + " " + getAID().getName() + " terminating.");
+    }
+
+    /**
+     * Start getting the ring directory, agent 0 publishes it as soon as every agent has registered.
+     * Subclasses override this for modes that don't need the chain.
+     * */
+    protected void startAgent()
+    {
+        if (this.id == 0)
+            this.addBehaviour(new DirectorySubscriber(this));
+        else
+            this.addBehaviour(new DirectoryReceiver());
+    }
+
+    //region Accessors
+
+    protected int getId()
+    {
+        return id;
+    }
+
+    protected int getN()
+    {
+        return n;
+    }
+
+    protected String getMode()
+    {
+        return mode;
+    }
+
+    protected CspProblem getProblem()
+    {
+        return problem;
+    }
+
+    protected Random getRandom()
+    {
+        return random;
+    }
+
+    /**
+     * The AID of every agent indexed by ID, null until the directory is published
+     * */
+    protected AID[] getDirectory()
+    {
+        return directory;
+    }
+
+    //endregion
+
+    /**
+     * Set the value of my variable
+     * */
+    private void setValue(int value)
+    {
+        this.value = value;
+        BitBoard.set(this.triedValues, value);
+        this.stats.addPositionTried();
+
+        if (this.verbose)
+            System.out.println(getName() + " - Set value: " + this.value);
+    }
+
+    /**
+     * Find and set the next value of my variable that is consistent with the assignment. Ignore values we have
+     * already tried. Return true if successful, false otherwise
+     * */
+    private boolean findConsistentValue(CspAssignment assignment)
+    {
+        // The consistent values I haven't tried yet are found by the assignment, e.g. with a single mask
+        // over the occupancy bitsets for N-Queens
+        int value = assignment.nextConsistentValue(this.id, this.triedValues, this.valueOffset);
+        if (value == CspAssignment.EMPTY)
+            return false;
+
+        setValue(value);
+        return true;
+    }
+
+    /**
+     * I have no untried consistent value left. Jump back to the deepest agent in my conflict set, i.e. the latest
+     * agent that actually caused one of my failures, and unassign the variables in between in the same step.
+     * Those agents forget their tried values when they next get a request from their predecessor.
+     * */
+    private void backjump(CspAssignment assignment)
+    {
+        // The variables ruling out my values, plus the conflicts reported by my successors
+        long[] jumpConflictSet = assignment.getCulprits(this.id);
+        for (int i = 0; i < jumpConflictSet.length; i++)
+            jumpConflictSet[i] |= this.conflictSet[i];
+
+        BitBoard.clearAll(this.triedValues);
+        BitBoard.clearAll(this.conflictSet);
+
+        int target = BitBoard.previousSetBit(jumpConflictSet, this.id - 1);
+        if (target < 0)
+        {
+            // No agent before me is to blame, there are no (more) solutions
+            if (this.mode.equals(MODE_ALL))
+                completeSearch();
+            else
+            {
+                System.out.println(getName() + " - No solution found");
+                reportResult(false, "No solution found");
+                queryStats();
+            }
+
+            return;
+        }
+
+        for (int variable = target + 1; variable < this.id; variable++)
+            assignment.unassign(variable);
+
+        if (this.verbose)
+            System.out.println(getName() + " - Jumping back to agent " + target + ": " + this.directory[target].getName());
+
+        addBehaviour(
+                new SetPositionRequestSenderOneShotBehaviour(
+                        this,
+                        this.directory[target],
+                        new SetPositionRequest(assignment, jumpConflictSet)
+                )
+        );
+    }
+
+    /**
+     * All mode, last agent: a complete assignment was found. Subclasses may override this to emit derived solutions
+     * instead, e.g. symmetric images, with addSolution and addDerivedSolutions.
+     * */
+    protected void emitSolution(CspAssignment assignment)
+    {
+        addSolution(assignment.getValues());
+    }
+
+    /**
+     * Add a solution to the batch, and send the batch to the collector once it is full
+     * */
+    protected void addSolution(int[] values)
+    {
+        this.solutionCount++;
+        this.solutionBatch.add(values);
+
+        if (this.solutionBatch.size() >= SOLUTION_BATCH_SIZE)
+            sendSolutionBatch(false);
+    }
+
+    /**
+     * Count solutions that are not sent to the collector
+     * */
+    protected void addDerivedSolutions(long count)
+    {
+        this.solutionCount += count;
+    }
+
+    private void sendSolutionBatch(boolean lastBatch)
+    {
+        if (this.solutionCollector != null)
+        {
+            ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
+            msg.setConversationId(this.solutionsConversationId);
+            msg.setOntology(lastBatch ? LAST_SOLUTION_BATCH : SOLUTION_BATCH);
+            msg.addReceiver(this.solutionCollector);
+            msg.setByteSequenceContent(this.codec.encodeSolutionBatch(this.solutionBatch));
+            send(msg);
+        }
+
+        this.solutionBatch.clear();
+    }
+
+    /**
+     * All mode: the result printed and reported when the search space is exhausted
+     * */
+    protected String getSearchResult(long solutionCount)
+    {
+        return "Number of solutions: " + solutionCount;
+    }
+
+    /**
+     * All mode: agent 0 has tried every value, the search space is exhausted.
+     * The last agent sends its remaining solutions, the others pass the news on to their successor.
+     * */
+    private void completeSearch()
+    {
+        if (this.id == this.n - 1)
+        {
+            sendSolutionBatch(true);
+
+            String result = getSearchResult(this.solutionCount);
+            System.out.println(getName() + " - Search space exhausted. " + result);
+            reportResult(true, result);
+            queryStats();
+        }
+        else if (this.successor != null)
+        {
+            ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
+            msg.setConversationId(this.conversationId);
+            msg.setOntology(SEARCH_COMPLETE);
+            msg.addReceiver(this.successor);
+            send(msg);
+        }
+    }
+
+    /**
+     * Report the result of the search to the launcher, if we were started by one
+     * */
+    protected void reportResult(boolean success, String result)
+    {
+        String launcher = this.options.get("launcher");
+        if (launcher == null)
+            return;
+
+        ACLMessage msg = new ACLMessage(success ? ACLMessage.INFORM : ACLMessage.FAILURE);
+        msg.setConversationId(this.resultConversationId);
+        msg.addReceiver(new AID(launcher, AID.ISLOCALNAME));
+        msg.setContent(result);
+        send(msg);
+    }
+
+    /**
+     * Ask agent 0 to gather and print the stats of all agents, done by the agent that finishes the search
+     * */
+    private void queryStats()
+    {
+        ACLMessage msg = new ACLMessage(ACLMessage.QUERY_REF);
+        msg.setConversationId(this.statsConversationId);
+        msg.addReceiver(this.directory[0]);
+        send(msg);
+    }
+
+    /**
+     * Agent 0: start gathering the stats of all agents for a query, unless a gathering is already under way
+     * */
+    private void gatherStats(ACLMessage query)
+    {
+        this.statsQueries.add(query);
+        if (this.gatheredStats != null)
+            return;
+
+        this.gatheredStats = new CspAgentStats();
+        this.gatheredStats.add(this.stats);
+        this.pendingStatsReplies = this.n - 1;
+
+        if (this.pendingStatsReplies == 0)
+        {
+            completeStats();
+            return;
+        }
+
+        ACLMessage msg = new ACLMessage(ACLMessage.QUERY_REF);
+        msg.setConversationId(this.statsConversationId);
+        msg.setOntology(AGENT_STATS);
+        for (int i = 1; i < this.directory.length; i++)
+            msg.addReceiver(this.directory[i]);
+        send(msg);
+    }
+
+    /**
+     * Agent 0: every agent has replied, print the summary and answer the waiting queries
+     * */
+    private void completeStats()
+    {
+        String summary = this.gatheredStats.toString();
+        System.out.println(getName() + " - Stats: " + summary);
+
+        for (ACLMessage query : this.statsQueries)
+        {
+            ACLMessage reply = query.createReply();
+            reply.setPerformative(ACLMessage.INFORM);
+            reply.setContent(summary);
+            send(reply);
+        }
+
+        this.statsQueries.clear();
+        this.gatheredStats = null;
+    }
+
+    /**
+     * Portfolio: my chain solved the problem, tell the agents of the other chains to stop
+     * */
+    protected void cancelOtherChains()
+    {
+        if (this.chain == null)
+            return;
+
+        try
+        {
+            DFAgentDescription[] results = DFService.search(this, getAgentDescription(), getUnlimitedSearchConstraints());
+
+            ACLMessage msg = new ACLMessage(ACLMessage.CANCEL);
+            msg.setConversationId(this.portfolioConversationId);
+            msg.setContent(this.chain);
+
+            boolean hasReceivers = false;
+            for (DFAgentDescription result : results)
+            {
+                if (!this.chain.equals(getProperty(result, CHAIN_PROPERTY)))
+                {
+                    msg.addReceiver(result.getName());
+                    hasReceivers = true;
+                }
+            }
+
+            if (hasReceivers)
+            {
+                System.out.println(getName() + " - Chain " + this.chain + " won, cancelling the other chains");
+                send(msg);
+            }
+        }
+        catch (FIPAException fe)
+        {
+            fe.printStackTrace();
+        }
+    }
+
+    private void getSolutionCollector()
+    {
+        this.solutionCollector = findSolutionCollector();
+        if (this.solutionCollector == null)
+            System.out.println(getName() + " - No solution collector found, solutions will only be counted");
+    }
+
+    private static SearchConstraints getUnlimitedSearchConstraints()
+    {
+        SearchConstraints searchConstraints = new SearchConstraints();
+        searchConstraints.setMaxResults(-1L);
+        return searchConstraints;
+    }
+
+    private void registerServices()
+    {
+        ServiceDescription service = new ServiceDescription();
+        service.setName(getServiceName());
+        service.setType(getServiceType());
+        Property propId = new Property();
+        propId.setName(ID_PROPERTY);
+        propId.setValue(this.id);
+        service.addProperties(propId);
+        if (this.chain != null)
+        {
+            Property propChain = new Property();
+            propChain.setName(CHAIN_PROPERTY);
+            propChain.setValue(this.chain);
+            service.addProperties(propChain);
+        }
+
+        DFAgentDescription agentDescription = new DFAgentDescription();
+        agentDescription.setName(getAID());
+        agentDescription.addServices(service);
+
+        try
+        {
+            DFService.register(this, agentDescription);
+        }
+        catch (FIPAException fe)
+        {
+            fe.printStackTrace();
+        }
+    }
+
+    private void deregisterServices()
+    {
+        try
+        {
+            DFService.deregister(this);
+        }
+        catch (FIPAException fe)
+        {
+            fe.printStackTrace();
+        }
+    }
+
+    //region DF search
+
+    /**
+     * Template matching the registrations of all agents of the problem
+     * */
+    private DFAgentDescription getAgentDescription()
+    {
+        DFAgentDescription serviceTemplate = new DFAgentDescription();
+
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(getServiceType());
+        sd.setName(getServiceName());
+        serviceTemplate.addServices(sd);
+
+        return serviceTemplate;
+    }
+
+    /**
+     * Get the ID property from a registration, -1 if there is none
+     * */
+    private int getAgentId(DFAgentDescription agentDescription)
+    {
+        String agentId = getProperty(agentDescription, ID_PROPERTY);
+        return agentId != null ? Integer.parseInt(agentId) : -1;
+    }
+
+    /**
+     * Get a property of a registration, null if there is none
+     * */
+    private String getProperty(DFAgentDescription agentDescription, String name)
+    {
+        Iterator<?> services = agentDescription.getAllServices();
+        while (services.hasNext())
+        {
+            ServiceDescription sd = (ServiceDescription)services.next();
+            Iterator<?> properties = sd.getAllProperties();
+            while (properties.hasNext())
+            {
+                Property property = (Property)properties.next();
+                if (property.getName().equals(name))
+                    return property.getValue().toString();
+            }
+        }
+
+        return null;
+    }
+
+    //endregion
+
+    /**
+     * Set the ring directory, the AID of every agent indexed by ID, and take my neighbours from it
+     * */
+    private void setDirectory(AID[] directory)
+    {
+        this.directory = directory;
+        this.predecessor = this.id > 0 ? directory[this.id - 1] : null;
+        this.successor = this.id < this.n - 1 ? directory[this.id + 1] : null;
+
+        System.out.println(getName()
+                + " - Predecessor: " + (this.predecessor != null ? this.predecessor.getName() : "null")
+                + " - Successor: " + (this.successor != null ? this.successor.getName() : "null")
+        );
+    }
+
+    /**
+     * Start serving SET_POSITION requests once my neighbours are known. Agent 0 starts the search.
+     * Subclasses override this for modes that search differently once the directory is known.
+     * */
+    protected void startSearch()
+    {
+        addBehaviour(new CspServer());
+        addBehaviour(new StatsServer());
+
+        if (this.mode.equals(MODE_ALL) && this.id == this.n - 1)
+            getSolutionCollector();
+
+        if (this.id == 0 && "true".equals(this.options.get("restore")) && restoreCheckpoint())
+            return;
+
+        if (this.id == 0)
+        {
+            // The first agent (ID 0) selects a random value for its variable and
+            // sends a SET_POSITION request to its successor.
+            // When enumerating all solutions it starts from the first value instead.
+
+            CspAssignment assignment = this.problem.createAssignment();
+
+            excludeValues(this.triedValues);
+
+            if (this.mode.equals(MODE_ALL))
+                findConsistentValue(assignment);
+            else
+                setValue(this.random.nextInt(this.problem.getDomainSize()));
+
+            assignment.assign(0, this.value);
+            this.firstValue = this.value;
+
+            addBehaviour(
+                    new SetPositionRequestSenderOneShotBehaviour(
+                            this,
+                            this.successor,
+                            new SetPositionRequest(assignment)
+                            )
+            );
+        }
+    }
+
+    /**
+     * Agent 0: continue the search from the last checkpoint. The other agents restore their state from it,
+     * then the request of the checkpoint is sent again. Return false if there is no checkpoint to restore.
+     * */
+    private boolean restoreCheckpoint()
+    {
+        Checkpoint checkpoint;
+        try
+        {
+            checkpoint = this.checkpointPath != null ? Checkpoint.readLast(this.checkpointPath, this.codec) : null;
+        }
+        catch (IOException | IllegalArgumentException ex)
+        {
+            System.err.println(ex);
+            checkpoint = null;
+        }
+
+        if (checkpoint == null)
+        {
+            System.out.println(getName() + " - No checkpoint to restore, starting a new search");
+            return false;
+        }
+
+        System.out.println(getName() + " - Restoring " + checkpoint);
+
+        applyCheckpoint(checkpoint);
+
+        // Queued before the request in the mailbox of every agent, and served by the same behaviour
+        ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
+        msg.setConversationId(this.conversationId);
+        msg.setOntology(RESTORE);
+        msg.setByteSequenceContent(this.codec.encode(checkpoint));
+        for (int i = 1; i < this.directory.length; i++)
+            msg.addReceiver(this.directory[i]);
+        send(msg);
+
+        this.step = checkpoint.getStep() - 1;
+        addBehaviour(
+                new SetPositionRequestSenderOneShotBehaviour(
+                        this,
+                        this.directory[checkpoint.getRecipientVariable()],
+                        new SetPositionRequest(checkpoint.getAssignment())
+                )
+        );
+
+        return true;
+    }
+
+    /**
+     * Restore my state from a checkpoint. The agents before the recipient (and the recipient, if it was
+     * jumped back to) have their variable assigned. The agents before them have not moved since, so every value
+     * before mine in my value order was either tried or is still inconsistent and counts as tried.
+     * Agent 0 tried the first value of the checkpoint before its value order, in chain mode that is a random value.
+     * The conflict sets are not in the checkpoint, so every agent before me is blamed:
+     * the restored part of the search backtracks chronologically instead of backjumping.
+     * */
+    private void applyCheckpoint(Checkpoint checkpoint)
+    {
+        CspAssignment assignment = checkpoint.getAssignment();
+        int domainSize = this.problem.getDomainSize();
+
+        BitBoard.clearAll(this.triedValues);
+        BitBoard.clearAll(this.conflictSet);
+
+        boolean isAssigned = this.id < checkpoint.getRecipientVariable()
+                || (this.id == checkpoint.getRecipientVariable() && assignment.isAssigned(this.id));
+
+        this.firstValue = checkpoint.getFirstValue();
+        this.solutionCount = checkpoint.getSolutionCount();
+
+        if (isAssigned)
+        {
+            int value = assignment.getValue(this.id);
+            if (this.id == 0)
+                BitBoard.set(this.triedValues, this.firstValue);
+
+            for (int i = 0; i < domainSize && !BitBoard.get(this.triedValues, value); i++)
+            {
+                int triedValue = (this.valueOffset + i) % domainSize;
+                BitBoard.set(this.triedValues, triedValue);
+            }
+
+            for (int variable = 0; variable < this.id; variable++)
+                BitBoard.set(this.conflictSet, variable);
+
+            this.value = value;
+        }
+
+        excludeValues(this.triedValues);
+    }
+
+    /**
+     * Append a checkpoint of a request to the log, if checkpoints are on and the step is due
+     * */
+    private void checkpoint(long step, AID recipient, SetPositionRequest request)
+    {
+        if (this.checkpointPath == null || step % this.checkpointInterval != 0)
+            return;
+
+        int recipientVariable = Arrays.asList(this.directory).indexOf(recipient);
+
+        try
+        {
+            new Checkpoint(step, recipientVariable, this.firstValue, this.solutionCount, request.getAssignment())
+                    .append(this.checkpointPath, this.codec);
+        }
+        catch (IOException ex)
+        {
+            System.err.println(getName() + " - Could not write checkpoint - " + ex);
+        }
+    }
+
+    //region Behaviours
+
+    /**
+     * Agent 0 coordinates startup: it subscribes to the DF for the registrations of its chain, and as soon as all
+     * n agents are registered it publishes the whole ID to AID table to the other agents in one message.
+     * */
+    private class DirectorySubscriber extends SubscriptionInitiator
+    {
+        private AID[] foundAgents;
+        private int foundAgentCount;
+        private boolean published;
+
+        public DirectorySubscriber(DistributedCspAgent a)
+        {
+            super(a, DFService.createSubscriptionMessage(a, a.getDefaultDF(), a.getAgentDescription(),
+                    getUnlimitedSearchConstraints()));
+
+            this.foundAgents = new AID[a.n];
+            this.foundAgentCount = 0;
+            this.published = false;
+        }
+
+        @Override
+        protected void handleInform(ACLMessage inform)
+        {
+            if (published)
+                return;
+
+            try
+            {
+                DFAgentDescription[] results = DFService.decodeNotification(inform.getContent());
+                for (DFAgentDescription result : results)
+                {
+                    // Agents of other chains of a portfolio register the same service
+                    if (!Objects.equals(chain, getProperty(result, CHAIN_PROPERTY)))
+                        continue;
+
+                    int agentId = getAgentId(result);
+                    if (agentId >= 0 && agentId < foundAgents.length && foundAgents[agentId] == null)
+                    {
+                        foundAgents[agentId] = result.getName();
+                        foundAgentCount++;
+                    }
+                }
+            }
+            catch (FIPAException fe)
+            {
+                fe.printStackTrace();
+                return;
+            }
+
+            if (foundAgentCount == foundAgents.length)
+            {
+                published = true;
+                cancel(myAgent.getDefaultDF(), true);
+
+                System.out.println(myAgent.getName() + " - All " + n + " agents registered, publishing directory");
+
+                try
+                {
+                    ACLMessage directoryMsg = new ACLMessage(ACLMessage.INFORM);
+                    directoryMsg.setConversationId(directoryConversationId);
+                    directoryMsg.setContentObject(foundAgents);
+                    for (int i = 1; i < foundAgents.length; i++)
+                        directoryMsg.addReceiver(foundAgents[i]);
+
+                    myAgent.send(directoryMsg);
+                }
+                catch (IOException ex)
+                {
+                    System.err.println(ex);
+                }
+
+                setDirectory(foundAgents);
+                startSearch();
+            }
+        }
+    }
+
+    private class DirectoryReceiver extends CyclicBehaviour
+    {
+        private final MessageTemplate mt = MessageTemplate.and(
+                MessageTemplate.MatchPerformative(ACLMessage.INFORM),
+                MessageTemplate.MatchConversationId(directoryConversationId)
+        );
+
+        @Override
+        public void action()
+        {
+            ACLMessage msg = myAgent.receive(mt);
+
+            if (msg != null)
+            {
+                try
+                {
+                    setDirectory((AID[])msg.getContentObject());
+                    startSearch();
+                    myAgent.removeBehaviour(this);
+                }
+                catch (UnreadableException ex)
+                {
+                    System.err.println(ex);
+                }
+            }
+            else
+            {
+                block();
+            }
+        }
+    }
+
+    /**
+     * Serves the requests of my chain. Every action drains all pending requests instead of one per scheduling round.
+     * There is a single SET_POSITION request in flight per chain, so the requests are handled in the order they
+     * arrived, none of them can be stale.
+     * */
+    private class CspServer extends CyclicBehaviour
+    {
+        private final MessageTemplate mt = MessageTemplate.and(
+                MessageTemplate.MatchPerformative(ACLMessage.REQUEST),
+                MessageTemplate.MatchConversationId(conversationId)
+        );
+
+        public void action()
+        {
+            ACLMessage msg = myAgent.receive(mt);
+            if (msg == null)
+            {
+                block();
+                return;
+            }
+
+            for (; msg != null; msg = myAgent.receive(mt))
+                handleRequest(msg);
+        }
+
+        private void handleRequest(ACLMessage msg)
+        {
+            try
+            {
+                String requestType = msg.getOntology();
+
+                if (requestType.equals(SEARCH_COMPLETE))
+                {
+                    completeSearch();
+                }
+                else if (requestType.equals(RESTORE))
+                {
+                    applyCheckpoint(codec.decodeCheckpoint(msg.getByteSequenceContent()));
+                }
+                else if (requestType.equals(SET_POSITION_REQUEST))
+                {
+                    String requestStep = msg.getUserDefinedParameter(STEP);
+                    step = requestStep != null ? Long.parseLong(requestStep) : 0;
+
+                    // Only the last agent counts solutions, the others pass on the count they last saw
+                    String requestFirstValue = msg.getUserDefinedParameter(FIRST_VALUE);
+                    if (requestFirstValue != null)
+                        firstValue = Integer.parseInt(requestFirstValue);
+
+                    String requestSolutionCount = msg.getUserDefinedParameter(SOLUTION_COUNT);
+                    if (requestSolutionCount != null)
+                        solutionCount = Math.max(solutionCount, Long.parseLong(requestSolutionCount));
+
+                    String sentAt = msg.getUserDefinedParameter(SENT_AT);
+                    if (sentAt != null)
+                        stats.addHopLatency(System.nanoTime() - Long.parseLong(sentAt));
+
+                    SetPositionRequest request = codec.decodeRequest(msg.getByteSequenceContent());
+                    CspAssignment assignment = request.getAssignment();
+
+                    if (assignment.isAssigned(id))
+                    {
+                        // if our variable is assigned, a successor didn't find a consistent value
+                        // and jumped back to us - so we need to unassign our variable,
+                        // remember what caused the failure and find a new value
+                        assignment.unassign(id);
+
+                        long[] requestConflictSet = request.getConflictSet();
+                        BitBoard.clear(requestConflictSet, id);
+                        for (int i = 0; i < conflictSet.length; i++)
+                            conflictSet[i] |= requestConflictSet[i];
+                    }
+                    else
+                    {
+                        // our predecessor moved, so the variables after it start over
+                        BitBoard.clearAll(triedValues);
+                        BitBoard.clearAll(conflictSet);
+                    }
+
+                    if (findConsistentValue(assignment))
+                    {
+                        // we found a consistent value
+                        // if we are the last agent the problem is solved
+                        // otherwise we add our value to the assignment and
+                        // send it to our successor so it can find a value
+
+                        assignment.assign(id, value);
+
+                        if (id == n-1 && mode.equals(MODE_ALL))
+                        {
+                            // Emit this solution and the solutions with my other consistent values,
+                            // then backtrack right away so the chain exhausts the search space
+                            emitSolution(assignment);
+                            assignment.unassign(id);
+
+                            while (findConsistentValue(assignment))
+                            {
+                                assignment.assign(id, value);
+                                emitSolution(assignment);
+                                assignment.unassign(id);
+                            }
+
+                            // Every agent before me led to these solutions, so none of them may be jumped over
+                            for (int variable = 0; variable < id; variable++)
+                                BitBoard.set(conflictSet, variable);
+
+                            backjump(assignment);
+                        }
+                        else if (id == n-1)
+                        {
+                            // This is the last agent, we are done
+                            printSolution(assignment);
+                            reportResult(true, Arrays.toString(assignment.getValues()));
+                            cancelOtherChains();
+                            queryStats();
+                        }
+                        else
+                        {
+                            if (successor != null)
+                            {
+                                if (verbose)
+                                {
+                                    System.out.println(myAgent.getName()
+                                            + " - Sending request to successor: " + successor.getName()
+                                    );
+                                }
+
+                                addBehaviour(
+                                        new SetPositionRequestSenderOneShotBehaviour(
+                                                myAgent,
+                                                successor,
+                                                new SetPositionRequest(assignment)
+                                        )
+                                );
+                            }
+                        }
+                    }
+                    else
+                    {
+                        // we did not find any untried consistent value
+                        // jump back to the agent that caused the conflict, asking it to change its value
+                        backjump(assignment);
+                    }
+                }
+            }
+            catch (Exception ex)
+            {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Answers stats queries. Every agent replies to AGENT_STATS queries from agent 0 with its own counters,
+     * agent 0 also serves the queries for the summary of all agents.
+     * */
+    private class StatsServer extends CyclicBehaviour
+    {
+        private final MessageTemplate mt = MessageTemplate.MatchConversationId(statsConversationId);
+
+        @Override
+        public void action()
+        {
+            ACLMessage msg = myAgent.receive(mt);
+
+            if (msg != null)
+            {
+                try
+                {
+                    boolean isAgentStats = AGENT_STATS.equals(msg.getOntology());
+
+                    if (msg.getPerformative() == ACLMessage.QUERY_REF && isAgentStats)
+                    {
+                        ACLMessage reply = msg.createReply();
+                        reply.setPerformative(ACLMessage.INFORM);
+                        reply.setContentObject(stats);
+                        myAgent.send(reply);
+                    }
+                    else if (msg.getPerformative() == ACLMessage.QUERY_REF && id == 0)
+                    {
+                        gatherStats(msg);
+                    }
+                    else if (msg.getPerformative() == ACLMessage.INFORM && isAgentStats && gatheredStats != null)
+                    {
+                        gatheredStats.add((CspAgentStats)msg.getContentObject());
+                        if (--pendingStatsReplies == 0)
+                            completeStats();
+                    }
+                    // The INFORM with the summary answering the query of the agent that finished is not needed,
+                    // agent 0 has already printed it
+                }
+                catch (IOException | UnreadableException ex)
+                {
+                    System.err.println(ex);
+                }
+            }
+            else
+            {
+                block();
+            }
+        }
+    }
+
+    /**
+     * Portfolio: another chain solved the problem first, so my chain stops
+     * */
+    private class PortfolioCancelServer extends CyclicBehaviour
+    {
+        private final MessageTemplate mt = MessageTemplate.and(
+                MessageTemplate.MatchPerformative(ACLMessage.CANCEL),
+                MessageTemplate.MatchConversationId(portfolioConversationId)
+        );
+
+        @Override
+        public void action()
+        {
+            ACLMessage msg = myAgent.receive(mt);
+
+            if (msg != null)
+            {
+                System.out.println(myAgent.getName() + " - Chain " + msg.getContent() + " won, chain " + chain + " stops");
+                myAgent.doDelete();
+            }
+            else
+            {
+                block();
+            }
+        }
+    }
+
+    private class SetPositionRequestSenderOneShotBehaviour extends OneShotBehaviour
+    {
+        private AID recipient;
+        private SetPositionRequest request;
+        /**
+         * Taken when the request is created, the agent may handle more requests before this behaviour runs
+         * */
+        private long requestStep;
+
+        public SetPositionRequestSenderOneShotBehaviour(Agent a, AID recipient, SetPositionRequest request)
+        {
+            super(a);
+            this.recipient = recipient;
+            this.request = request;
+            this.requestStep = step + 1;
+        }
+
+        @Override
+        public void action()
+        {
+            ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
+            msg.setConversationId(conversationId);
+            msg.setOntology(SET_POSITION_REQUEST);
+            msg.addReceiver(this.recipient);
+
+            byte[] content = codec.encode(this.request);
+            msg.setByteSequenceContent(content);
+
+            if (this.recipient.equals(successor))
+                stats.addForwardRequest(content.length);
+            else
+                stats.addBacktrack(content.length);
+
+            msg.addUserDefinedParameter(STEP, Long.toString(this.requestStep));
+            if (checkpointPath != null)
+            {
+                msg.addUserDefinedParameter(FIRST_VALUE, Integer.toString(firstValue));
+                msg.addUserDefinedParameter(SOLUTION_COUNT, Long.toString(solutionCount));
+            }
+            checkpoint(this.requestStep, this.recipient, this.request);
+
+            msg.addUserDefinedParameter(SENT_AT, Long.toString(System.nanoTime()));
+            myAgent.send(msg);
+        }
+    }
+
+    //endregion
+}
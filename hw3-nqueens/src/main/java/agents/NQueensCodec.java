@@ -0,0 +1,399 @@
+package agents;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary content of the messages in the "nqueens" conversation.
+ * A placement is written as varints: n, the number of rows written, and then column + 1 for each row
+ * (0 for a row without a queen). Rows after the last placed queen are not written.
+ * This replaces Java serialization of the placement, which is too slow for thousands of messages per second.
+ * A SET_POSITION request is the placement followed by the conflict set: the number of words written
+ * and then each 64 bit word of the row bitset.
+ * The placement format is not specific to N-Queens, any CspAssignment is written the same way with the number of
+ * variables for n and value + 1 for each variable, which is what the DistributedCspAgent chains send.
+ * A batch of solutions (the "nqueens-solutions" conversation) is written as n, the number of solutions,
+ * and then the n columns of each solution.
+ * The min-conflicts search ("nqueens-minconflicts" conversation) sends full boards in the placement format
+ * and column reports as two varints, row and column.
+ * A checkpoint is the step, the recipient row, the first column of row 0 and the solution count as varints,
+ * followed by the placement.
+ * Work units of the master/worker mode ("nqueens-work" conversation) are the weight exponent as a varint followed
+ * by the placement of the prefix rows, and work results are the solution count, the weight exponent and the number
+ * of units the worker has queued, all varints.
+ * */
+public final class NQueensCodec
+{
+    public static final String CONVERSATION_ID = "nqueens";
+    public static final String SOLUTIONS_CONVERSATION_ID = CONVERSATION_ID + "-solutions";
+    public static final String MIN_CONFLICTS_CONVERSATION_ID = "nqueens-minconflicts";
+    public static final String WORK_CONVERSATION_ID = "nqueens-work";
+
+    private NQueensCodec()
+    {
+    }
+
+    public static byte[] encode(CspAssignment assignment)
+    {
+        Writer writer = new Writer(assignment.getVariableCount() + 4);
+        writeAssignment(writer, assignment);
+        return writer.toByteArray();
+    }
+
+    public static byte[] encode(SetPositionRequest request)
+    {
+        CspAssignment assignment = request.getAssignment();
+        Writer writer = new Writer(assignment.getVariableCount() + 8);
+        writeAssignment(writer, assignment);
+        writeBits(writer, request.getConflictSet());
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decode an N-Queens request, the assignment is a PlacementState
+     * */
+    public static SetPositionRequest decodeRequest(byte[] content)
+    {
+        Reader reader = new Reader(content);
+        return readRequest(reader, readPlacement(reader));
+    }
+
+    /**
+     * Decode a request with an assignment created by the problem
+     * */
+    public static SetPositionRequest decodeRequest(byte[] content, CspProblem problem)
+    {
+        Reader reader = new Reader(content);
+        return readRequest(reader, readAssignment(reader, problem));
+    }
+
+    /**
+     * Decode a placement, rebuilding the occupancy bitsets
+     * */
+    public static PlacementState decode(byte[] content)
+    {
+        return readPlacement(new Reader(content));
+    }
+
+    /**
+     * Decode only the column of each row (EMPTY for rows without a queen), without building a placement state
+     * */
+    public static int[] decodeColumns(byte[] content)
+    {
+        return readColumns(new Reader(content));
+    }
+
+    /**
+     * Encode a column vector (EMPTY for rows without a queen) in the placement format.
+     * Unlike a placement state the columns may attack each other.
+     * */
+    public static byte[] encodeColumns(int[] columns)
+    {
+        Writer writer = new Writer(columns.length + 4);
+        writer.writeVarint(columns.length);
+        writer.writeVarint(columns.length);
+        for (int column : columns)
+            writer.writeVarint(column + 1);
+
+        return writer.toByteArray();
+    }
+
+    public static byte[] encodeColumnReport(int row, int column)
+    {
+        Writer writer = new Writer(8);
+        writer.writeVarint(row);
+        writer.writeVarint(column);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Returns {row, column}
+     * */
+    public static int[] decodeColumnReport(byte[] content)
+    {
+        Reader reader = new Reader(content);
+        int row = reader.readVarint();
+        int column = reader.readVarint();
+        return new int[] { row, column };
+    }
+
+    public static byte[] encodeSolutionBatch(int n, List<int[]> solutions)
+    {
+        Writer writer = new Writer(solutions.size() * n + 8);
+        writer.writeVarint(n);
+        writer.writeVarint(solutions.size());
+        for (int[] solution : solutions)
+        {
+            for (int row = 0; row < n; row++)
+                writer.writeVarint(solution[row]);
+        }
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * Get the number of solutions in a batch without decoding them
+     * */
+    public static int decodeSolutionCount(byte[] content)
+    {
+        Reader reader = new Reader(content);
+        reader.readVarint();
+        return reader.readVarint();
+    }
+
+    public static int[][] decodeSolutionBatch(byte[] content)
+    {
+        Reader reader = new Reader(content);
+        int n = reader.readVarint();
+        int[][] solutions = new int[reader.readVarint()][n];
+        for (int[] solution : solutions)
+        {
+            for (int row = 0; row < n; row++)
+                solution[row] = reader.readVarint();
+        }
+
+        return solutions;
+    }
+
+    public static byte[] encode(Checkpoint checkpoint)
+    {
+        CspAssignment assignment = checkpoint.getAssignment();
+        Writer writer = new Writer(assignment.getVariableCount() + 16);
+        writer.writeVarLong(checkpoint.getStep());
+        writer.writeVarint(checkpoint.getRecipientVariable());
+        writer.writeVarint(checkpoint.getFirstValue());
+        writer.writeVarLong(checkpoint.getSolutionCount());
+        writeAssignment(writer, assignment);
+        return writer.toByteArray();
+    }
+
+    public static Checkpoint decodeCheckpoint(byte[] content, CspProblem problem)
+    {
+        Reader reader = new Reader(content);
+        long step = reader.readVarLong();
+        int recipientVariable = reader.readVarint();
+        int firstValue = reader.readVarint();
+        long solutionCount = reader.readVarLong();
+        return new Checkpoint(step, recipientVariable, firstValue, solutionCount, readAssignment(reader, problem));
+    }
+
+    public static byte[] encode(WorkUnit workUnit)
+    {
+        PlacementState prefix = workUnit.getPrefix();
+        Writer writer = new Writer(prefix.getN() + 16);
+        writer.writeVarint(workUnit.getWeightExponent());
+        writeAssignment(writer, prefix);
+        return writer.toByteArray();
+    }
+
+    public static WorkUnit decodeWorkUnit(byte[] content)
+    {
+        Reader reader = new Reader(content);
+        int weightExponent = reader.readVarint();
+        return new WorkUnit(readPlacement(reader), weightExponent);
+    }
+
+    public static byte[] encodeWorkResult(long solutionCount, int weightExponent, int queuedUnits)
+    {
+        Writer writer = new Writer(24);
+        writer.writeVarLong(solutionCount);
+        writer.writeVarint(weightExponent);
+        writer.writeVarint(queuedUnits);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Returns {solution count, weight exponent, queued units}
+     * */
+    public static long[] decodeWorkResult(byte[] content)
+    {
+        Reader reader = new Reader(content);
+        long solutionCount = reader.readVarLong();
+        long weightExponent = reader.readVarint();
+        long queuedUnits = reader.readVarint();
+        return new long[] { solutionCount, weightExponent, queuedUnits };
+    }
+
+    static void writeAssignment(Writer writer, CspAssignment assignment)
+    {
+        int variableCount = assignment.getVariableCount();
+        int writtenCount = variableCount;
+        while (writtenCount > 0 && !assignment.isAssigned(writtenCount - 1))
+            writtenCount--;
+
+        writer.writeVarint(variableCount);
+        writer.writeVarint(writtenCount);
+        for (int variable = 0; variable < writtenCount; variable++)
+            writer.writeVarint(assignment.getValue(variable) + 1);
+    }
+
+    /**
+     * Read an assignment in the placement format into a new assignment of the problem
+     * */
+    static CspAssignment readAssignment(Reader reader, CspProblem problem)
+    {
+        int variableCount = reader.readVarint();
+        if (variableCount != problem.getVariableCount())
+            throw new IllegalArgumentException("Expected " + problem.getVariableCount() + " variables, got " + variableCount);
+
+        int writtenCount = reader.readVarint();
+
+        CspAssignment assignment = problem.createAssignment();
+        for (int variable = 0; variable < writtenCount; variable++)
+        {
+            int value = reader.readVarint() - 1;
+            if (value != CspAssignment.EMPTY)
+                assignment.assign(variable, value);
+        }
+
+        return assignment;
+    }
+
+    private static SetPositionRequest readRequest(Reader reader, CspAssignment assignment)
+    {
+        long[] conflictSet = BitBoard.create(assignment.getVariableCount());
+        if (reader.hasRemaining())
+            readBits(reader, conflictSet);
+
+        return new SetPositionRequest(assignment, conflictSet);
+    }
+
+    static PlacementState readPlacement(Reader reader)
+    {
+        int n = reader.readVarint();
+        int rowCount = reader.readVarint();
+
+        PlacementState placementState = new PlacementState(n);
+        for (int row = 0; row < rowCount; row++)
+        {
+            int column = reader.readVarint() - 1;
+            if (column != PlacementState.EMPTY)
+                placementState.place(row, column);
+        }
+
+        return placementState;
+    }
+
+    /**
+     * Write a bitset without its trailing zero words
+     * */
+    static void writeBits(Writer writer, long[] bits)
+    {
+        int wordCount = bits.length;
+        while (wordCount > 0 && bits[wordCount - 1] == 0)
+            wordCount--;
+
+        writer.writeVarint(wordCount);
+        for (int i = 0; i < wordCount; i++)
+            writer.writeVarLong(bits[i]);
+    }
+
+    static void readBits(Reader reader, long[] bits)
+    {
+        int wordCount = reader.readVarint();
+        for (int i = 0; i < wordCount; i++)
+            bits[i] = reader.readVarLong();
+    }
+
+    static int[] readColumns(Reader reader)
+    {
+        int n = reader.readVarint();
+        int rowCount = reader.readVarint();
+
+        int[] columns = new int[n];
+        Arrays.fill(columns, PlacementState.EMPTY);
+        for (int row = 0; row < rowCount; row++)
+            columns[row] = reader.readVarint() - 1;
+
+        return columns;
+    }
+
+    /**
+     * Growable byte buffer writing unsigned LEB128 varints
+     * */
+    static class Writer
+    {
+        private byte[] buffer;
+        private int length;
+
+        Writer(int initialCapacity)
+        {
+            this.buffer = new byte[Math.max(16, initialCapacity)];
+            this.length = 0;
+        }
+
+        void writeVarint(int value)
+        {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0)
+            {
+                buffer[length++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte)value;
+        }
+
+        void writeVarLong(long value)
+        {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0)
+            {
+                buffer[length++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte)value;
+        }
+
+        private void ensureCapacity(int extra)
+        {
+            if (length + extra > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+
+        byte[] toByteArray()
+        {
+            return Arrays.copyOf(buffer, length);
+        }
+    }
+
+    static class Reader
+    {
+        private byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer)
+        {
+            this.buffer = buffer;
+            this.position = 0;
+        }
+
+        boolean hasRemaining()
+        {
+            return position < buffer.length;
+        }
+
+        int readVarint()
+        {
+            return (int)readVarLong();
+        }
+
+        long readVarLong()
+        {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do
+            {
+                if (position >= buffer.length)
+                    throw new IllegalArgumentException("Truncated nqueens message content");
+
+                b = buffer[position++];
+                value |= (long)(b & 0x7F) << shift;
+                shift += 7;
+            }
+            while ((b & 0x80) != 0);
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package agents;
+
+import java.util.List;
+
+/**
+ * The NQueensCodec formats as the CspCodec of a chain, the assignments are created by the problem
+ * */
+public class NQueensCspCodec implements CspCodec
+{
+    private CspProblem problem;
+
+    public NQueensCspCodec(CspProblem problem)
+    {
+        this.problem = problem;
+    }
+
+    @Override
+    public byte[] encode(SetPositionRequest request)
+    {
+        return NQueensCodec.encode(request);
+    }
+
+    @Override
+    public SetPositionRequest decodeRequest(byte[] content)
+    {
+        return NQueensCodec.decodeRequest(content, problem);
+    }
+
+    @Override
+    public byte[] encode(Checkpoint checkpoint)
+    {
+        return NQueensCodec.encode(checkpoint);
+    }
+
+    @Override
+    public Checkpoint decodeCheckpoint(byte[] content)
+    {
+        return NQueensCodec.decodeCheckpoint(content, problem);
+    }
+
+    @Override
+    public byte[] encodeSolutionBatch(List<int[]> solutions)
+    {
+        return NQueensCodec.encodeSolutionBatch(problem.getVariableCount(), solutions);
+    }
+}
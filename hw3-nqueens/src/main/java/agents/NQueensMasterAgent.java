@@ -0,0 +1,350 @@
+package agents;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.SearchConstraints;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+import jade.proto.SubscriptionInitiator;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Master of the master/worker mode. Instead of one agent per row, the board is split into work units:
+ * every safe placement of the first k rows. The units are handed out to NQueensWorkerAgents, which may live in
+ * several containers, one at a time as the workers ask for them. When the master has no units left and a worker
+ * runs out of work, the master tells the worker with the most queued units to give half of them to the idle worker.
+ * */
+public class NQueensMasterAgent extends Agent
+{
+    private int n;
+    private int prefixRows;
+    private int workerCount;
+
+    private ArrayDeque<WorkUnit> workUnits;
+    /**
+     * The weight returned so far is returnedWeight * 2^-returnedWeightScale units, see WorkUnit
+     * */
+    private BigInteger returnedWeight = BigInteger.ZERO;
+    private int returnedWeightScale;
+    private long solutionCount;
+    private int unitCount;
+    private int stealCount;
+    private long startTime;
+
+    private ArrayList<AID> workers;
+    /**
+     * Number of units each worker had queued at its last result
+     * */
+    private HashMap<AID, Integer> queuedUnits;
+    /**
+     * Workers that asked for work while there was none to give or steal
+     * */
+    private ArrayList<AID> idleWorkers;
+
+    protected void setup()
+    {
+        Object[] args = getArguments();
+        if (args != null && args.length >= 1 && args.length <= 3)
+        {
+            try
+            {
+                this.n = Integer.parseInt((String)args[0]);
+                this.prefixRows = args.length >= 2 ? Integer.parseInt((String)args[1]) : Math.min(this.n, 3);
+                this.workerCount = args.length == 3 ? Integer.parseInt((String)args[2]) : 1;
+
+                if (this.n < 1 || this.n > NQueensSolver.MAX_N)
+                    throw new IllegalArgumentException("N must be between 1 and " + NQueensSolver.MAX_N);
+                if (this.prefixRows < 0 || this.prefixRows > this.n || this.workerCount < 1)
+                    throw new IllegalArgumentException("Invalid prefix rows or worker count");
+            }
+            catch (Exception ex)
+            {
+                System.err.println(ex);
+                System.out.println(getName() + " - Invalid command line arguments. Should be: [N], [N],[K] or [N],[K],[WORKERS]");
+                return;
+            }
+        }
+        else
+        {
+            System.out.println(getName() + " - Invalid command line arguments. Should be: [N], [N],[K] or [N],[K],[WORKERS]");
+            return;
+        }
+
+        this.workUnits = new ArrayDeque<>();
+        createWorkUnits(new PlacementState(this.n));
+        this.unitCount = this.workUnits.size();
+
+        this.workers = new ArrayList<>();
+        this.queuedUnits = new HashMap<>();
+        this.idleWorkers = new ArrayList<>();
+
+        System.out.println("NQueensMasterAgent " + getAID().getName() + " is ready. n: " + this.n
+                + " - Prefix rows: " + this.prefixRows + " - Work units: " + this.unitCount
+                + " - Waiting for " + this.workerCount + " workers");
+
+        this.addBehaviour(new WorkerSubscriber(this));
+        this.addBehaviour(new MasterServer());
+    }
+
+    protected void takeDown()
+    {
+        System.out.println("NQueensMasterAgent " + getAID().getName() + " terminating.");
+    }
+
+    /**
+     * Create a unit for every safe placement of the first prefixRows rows
+     * */
+    private void createWorkUnits(PlacementState prefix)
+    {
+        int row = prefix.size();
+        if (row == this.prefixRows)
+        {
+            this.workUnits.add(new WorkUnit(new PlacementState(prefix), 0));
+            return;
+        }
+
+        long[] safeColumns = prefix.getSafeColumns(row);
+        for (int column = BitBoard.nextSetBit(safeColumns, 0); column >= 0; column = BitBoard.nextSetBit(safeColumns, column + 1))
+        {
+            prefix.place(row, column);
+            createWorkUnits(prefix);
+            prefix.remove(row);
+        }
+    }
+
+    /**
+     * Every worker is known, give each one a unit to start with. The workers ask for more when they are done.
+     * */
+    private void startWork()
+    {
+        this.startTime = System.nanoTime();
+
+        if (this.workUnits.isEmpty())
+        {
+            printResult();
+            return;
+        }
+
+        for (AID worker : this.workers)
+            sendWorkUnit(worker);
+    }
+
+    private void sendWorkUnit(AID worker)
+    {
+        WorkUnit workUnit = this.workUnits.pollFirst();
+        if (workUnit == null)
+        {
+            steal(worker);
+            return;
+        }
+
+        ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
+        msg.setConversationId(NQueensCodec.WORK_CONVERSATION_ID);
+        msg.setOntology(NQueensWorkerAgent.WORK_UNIT);
+        msg.addReceiver(worker);
+        msg.setByteSequenceContent(NQueensCodec.encode(workUnit));
+        send(msg);
+    }
+
+    /**
+     * Ask the worker with the most queued units to give half of them to the idle worker
+     * */
+    private void steal(AID thief)
+    {
+        AID victim = null;
+        int victimQueuedUnits = 1;
+        for (Map.Entry<AID, Integer> entry : this.queuedUnits.entrySet())
+        {
+            if (!entry.getKey().equals(thief) && entry.getValue() > victimQueuedUnits)
+            {
+                victim = entry.getKey();
+                victimQueuedUnits = entry.getValue();
+            }
+        }
+
+        if (victim == null)
+        {
+            if (!this.idleWorkers.contains(thief))
+                this.idleWorkers.add(thief);
+            return;
+        }
+
+        // Don't pick the same victim again before it reports how much it has left
+        this.queuedUnits.put(victim, victimQueuedUnits / 2);
+        this.stealCount++;
+
+        ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
+        msg.setConversationId(NQueensCodec.WORK_CONVERSATION_ID);
+        msg.setOntology(NQueensWorkerAgent.STEAL);
+        msg.addReceiver(victim);
+        msg.setContent(thief.getName());
+        send(msg);
+    }
+
+    private void handleResult(ACLMessage msg)
+    {
+        long[] result = NQueensCodec.decodeWorkResult(msg.getByteSequenceContent());
+        this.solutionCount += result[0];
+        addReturnedWeight((int)result[1]);
+        this.queuedUnits.put(msg.getSender(), (int)result[2]);
+
+        // Every unit the master created has weight 1
+        if (this.returnedWeight.equals(BigInteger.valueOf(this.unitCount).shiftLeft(this.returnedWeightScale)))
+        {
+            printResult();
+            return;
+        }
+
+        // A worker with units to spare showed up, let an idle worker steal from it
+        if (result[2] > 1 && !this.idleWorkers.isEmpty())
+            steal(this.idleWorkers.remove(0));
+    }
+
+    /**
+     * Add 2^-weightExponent to the returned weight, exactly
+     * */
+    private void addReturnedWeight(int weightExponent)
+    {
+        if (weightExponent > this.returnedWeightScale)
+        {
+            this.returnedWeight = this.returnedWeight.shiftLeft(weightExponent - this.returnedWeightScale);
+            this.returnedWeightScale = weightExponent;
+        }
+
+        this.returnedWeight = this.returnedWeight.add(BigInteger.ONE.shiftLeft(this.returnedWeightScale - weightExponent));
+    }
+
+    private void printResult()
+    {
+        long elapsedMillis = (System.nanoTime() - this.startTime) / 1000000;
+
+        System.out.println("SUCCESS!\n" + getName()
+                + " - Number of solutions: " + this.solutionCount
+                + " - Work units: " + this.unitCount
+                + " - Workers: " + this.workers.size()
+                + " - Steals: " + this.stealCount
+                + " - Time: " + elapsedMillis + " ms"
+        );
+
+        ACLMessage msg = new ACLMessage(ACLMessage.CONFIRM);
+        msg.setConversationId(NQueensCodec.WORK_CONVERSATION_ID);
+        for (AID worker : this.workers)
+            msg.addReceiver(worker);
+        send(msg);
+    }
+
+    private static DFAgentDescription getWorkerAgentDescription()
+    {
+        DFAgentDescription workerServiceTemplate = new DFAgentDescription();
+
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(ServiceList.SRVC_NQUEENS_WORKER_TYPE);
+        sd.setName(ServiceList.SRVC_NQUEENS_WORKER_NAME);
+        workerServiceTemplate.addServices(sd);
+
+        return workerServiceTemplate;
+    }
+
+    private static SearchConstraints getUnlimitedSearchConstraints()
+    {
+        SearchConstraints searchConstraints = new SearchConstraints();
+        searchConstraints.setMaxResults(-1L);
+        return searchConstraints;
+    }
+
+    //region Behaviours
+
+    /**
+     * Subscribes to the DF for worker registrations and starts the work when enough workers are registered
+     * */
+    private class WorkerSubscriber extends SubscriptionInitiator
+    {
+        public WorkerSubscriber(NQueensMasterAgent a)
+        {
+            super(a, DFService.createSubscriptionMessage(a, a.getDefaultDF(), getWorkerAgentDescription(),
+                    getUnlimitedSearchConstraints()));
+        }
+
+        @Override
+        protected void handleInform(ACLMessage inform)
+        {
+            if (workers.size() >= workerCount)
+                return;
+
+            try
+            {
+                DFAgentDescription[] results = DFService.decodeNotification(inform.getContent());
+                for (DFAgentDescription result : results)
+                {
+                    if (result.getAllServices().hasNext() && !workers.contains(result.getName()))
+                    {
+                        workers.add(result.getName());
+                        queuedUnits.put(result.getName(), 0);
+                    }
+                }
+            }
+            catch (FIPAException fe)
+            {
+                fe.printStackTrace();
+                return;
+            }
+
+            if (workers.size() >= workerCount)
+            {
+                System.out.println(myAgent.getName() + " - " + workers.size() + " workers registered, starting");
+                cancel(myAgent.getDefaultDF(), true);
+                startWork();
+            }
+        }
+    }
+
+    private class MasterServer extends CyclicBehaviour
+    {
+        private final MessageTemplate mt = MessageTemplate.MatchConversationId(NQueensCodec.WORK_CONVERSATION_ID);
+
+        @Override
+        public void action()
+        {
+            ACLMessage msg = myAgent.receive(mt);
+
+            if (msg != null)
+            {
+                try
+                {
+                    if (NQueensWorkerAgent.WORK_RESULT.equals(msg.getOntology()))
+                    {
+                        handleResult(msg);
+                    }
+                    else if (NQueensWorkerAgent.WORK_REQUEST.equals(msg.getOntology()))
+                    {
+                        sendWorkUnit(msg.getSender());
+                    }
+                    else if (msg.getPerformative() == ACLMessage.REFUSE)
+                    {
+                        // The victim had too little left, the thief waits for the next worker with units to spare
+                        AID thief = new AID(msg.getContent(), AID.ISGUID);
+                        if (!idleWorkers.contains(thief))
+                            idleWorkers.add(thief);
+                    }
+                }
+                catch (Exception ex)
+                {
+                    ex.printStackTrace();
+                }
+            }
+            else
+            {
+                block();
+            }
+        }
+    }
+
+    //endregion
+}
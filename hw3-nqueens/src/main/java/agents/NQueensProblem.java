@@ -0,0 +1,66 @@
+package agents;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * N-Queens as a constraint satisfaction problem: one variable per row, its value is the column of the queen.
+ * */
+public class NQueensProblem implements CspProblem
+{
+    private int n;
+
+    public NQueensProblem(int n)
+    {
+        this.n = n;
+    }
+
+    @Override
+    public int getVariableCount()
+    {
+        return n;
+    }
+
+    @Override
+    public int getDomainSize()
+    {
+        return n;
+    }
+
+    @Override
+    public CspAssignment createAssignment()
+    {
+        return new PlacementState(n);
+    }
+
+    /**
+     * Stream the board row by row. One row buffer of empty squares is reused, only the square of the queen
+     * is marked and cleared again, so the board is never held in memory as a whole.
+     * */
+    @Override
+    public void write(CspAssignment assignment, Writer writer) throws IOException
+    {
+        char[] row = new char[4 * n + 1];
+        for (int x = 0; x < n; x++)
+        {
+            row[4 * x] = '[';
+            row[4 * x + 1] = ' ';
+            row[4 * x + 2] = ']';
+            row[4 * x + 3] = ' ';
+        }
+        row[4 * n] = '\n';
+
+        for (int y = 0; y < n; y++)
+        {
+            int queenColumn = assignment.getValue(y);
+
+            if (queenColumn != CspAssignment.EMPTY)
+                row[4 * queenColumn + 1] = 'X';
+
+            writer.write(row);
+
+            if (queenColumn != CspAssignment.EMPTY)
+                row[4 * queenColumn + 1] = ' ';
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package agents;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * In-memory N-Queens solver using the bitmask technique: the occupied columns and the diagonals
+ * attacking the current row are kept in three longs, so the free squares of a row are one mask operation.
+ * The first rows are split into fork-join tasks, the subtrees below them are searched sequentially.
+ * */
+public class NQueensSolver
+{
+    public static final int MAX_N = 63;
+
+    private final int n;
+    private final long allColumns;
+    private final int splitDepth;
+    private final ForkJoinPool pool;
+
+    public NQueensSolver(int n)
+    {
+        this(n, n > 8 ? 2 : 1, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param splitDepth number of rows that are split into separate fork-join tasks
+     * */
+    public NQueensSolver(int n, int splitDepth, ForkJoinPool pool)
+    {
+        if (n < 1 || n > MAX_N)
+            throw new IllegalArgumentException("n must be between 1 and " + MAX_N + ", was " + n);
+
+        this.n = n;
+        this.allColumns = (1L << n) - 1;
+        this.splitDepth = splitDepth;
+        this.pool = pool;
+    }
+
+    public int getN()
+    {
+        return n;
+    }
+
+    /**
+     * Count all solutions
+     * */
+    public long countSolutions()
+    {
+        return pool.invoke(new SubtreeTask(new int[n], 0, 0, 0, 0, null));
+    }
+
+    /**
+     * Count the solutions that start with the given columns of the first rows, 0 if the prefix is not safe
+     * */
+    public long countSolutions(int[] prefix)
+    {
+        int[] columns = new int[n];
+        long occupiedColumns = 0;
+        long leftDiagonals = 0;
+        long rightDiagonals = 0;
+
+        for (int row = 0; row < prefix.length; row++)
+        {
+            long bit = 1L << prefix[row];
+            if ((bit & ~(occupiedColumns | leftDiagonals | rightDiagonals) & allColumns) == 0)
+                return 0;
+
+            columns[row] = prefix[row];
+            occupiedColumns |= bit;
+            leftDiagonals = (leftDiagonals | bit) << 1;
+            rightDiagonals = (rightDiagonals | bit) >>> 1;
+        }
+
+        return pool.invoke(new SubtreeTask(columns, prefix.length, occupiedColumns, leftDiagonals, rightDiagonals, null));
+    }
+
+    /**
+     * Enumerate all solutions. The consumer gets the column of each row and is called from several threads.
+     * Returns the number of solutions.
+     * */
+    public long enumerateSolutions(Consumer<int[]> consumer)
+    {
+        return pool.invoke(new SubtreeTask(new int[n], 0, 0, 0, 0, consumer));
+    }
+
+    /**
+     * Find the first solution in column order, null if there is none. Runs on the calling thread.
+     * */
+    public int[] findFirstSolution()
+    {
+        int[] columns = new int[n];
+        return findFirst(columns, 0, 0, 0, 0) ? columns : null;
+    }
+
+    private boolean findFirst(int[] columns, int row, long occupiedColumns, long leftDiagonals, long rightDiagonals)
+    {
+        if (row == n)
+            return true;
+
+        long free = allColumns & ~(occupiedColumns | leftDiagonals | rightDiagonals);
+        while (free != 0)
+        {
+            long bit = free & -free;
+            free ^= bit;
+            columns[row] = Long.numberOfTrailingZeros(bit);
+
+            if (findFirst(columns, row + 1, occupiedColumns | bit, (leftDiagonals | bit) << 1, (rightDiagonals | bit) >>> 1))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Count (and optionally enumerate) the solutions below a partial board with the first rows filled in.
+     * Diagonal masks are relative to the given row.
+     * */
+    private long search(int[] columns, int row, long occupiedColumns, long leftDiagonals, long rightDiagonals,
+                        Consumer<int[]> consumer)
+    {
+        if (row == n)
+        {
+            if (consumer != null)
+                consumer.accept(columns.clone());
+            return 1;
+        }
+
+        long count = 0;
+        long free = allColumns & ~(occupiedColumns | leftDiagonals | rightDiagonals);
+        while (free != 0)
+        {
+            long bit = free & -free;
+            free ^= bit;
+
+            if (consumer != null)
+                columns[row] = Long.numberOfTrailingZeros(bit);
+
+            count += search(columns, row + 1, occupiedColumns | bit, (leftDiagonals | bit) << 1, (rightDiagonals | bit) >>> 1, consumer);
+        }
+
+        return count;
+    }
+
+    private class SubtreeTask extends RecursiveTask<Long>
+    {
+        private final int[] columns;
+        private final int row;
+        private final long occupiedColumns;
+        private final long leftDiagonals;
+        private final long rightDiagonals;
+        private final Consumer<int[]> consumer;
+
+        SubtreeTask(int[] columns, int row, long occupiedColumns, long leftDiagonals, long rightDiagonals,
+                    Consumer<int[]> consumer)
+        {
+            this.columns = columns;
+            this.row = row;
+            this.occupiedColumns = occupiedColumns;
+            this.leftDiagonals = leftDiagonals;
+            this.rightDiagonals = rightDiagonals;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected Long compute()
+        {
+            if (row >= splitDepth || row == n)
+                return search(columns, row, occupiedColumns, leftDiagonals, rightDiagonals, consumer);
+
+            // Fork one task per free column of this row
+            ArrayList<SubtreeTask> subtasks = new ArrayList<>();
+            long free = allColumns & ~(occupiedColumns | leftDiagonals | rightDiagonals);
+            while (free != 0)
+            {
+                long bit = free & -free;
+                free ^= bit;
+
+                int[] subtaskColumns = columns.clone();
+                subtaskColumns[row] = Long.numberOfTrailingZeros(bit);
+                subtasks.add(new SubtreeTask(
+                        subtaskColumns,
+                        row + 1,
+                        occupiedColumns | bit,
+                        (leftDiagonals | bit) << 1,
+                        (rightDiagonals | bit) >>> 1,
+                        consumer
+                ));
+            }
+
+            long count = 0;
+            for (SubtreeTask subtask : invokeAll(subtasks))
+                count += subtask.join();
+
+            return count;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package agents;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Worker of the master/worker mode. Work units from the NQueensMasterAgent (or stolen from another worker)
+ * are kept in a local deque. Units with many rows left are split one row at a time, the parts go to the back
+ * of the deque, and units with few rows left are counted with the in-memory NQueensSolver.
+ * The worker takes its next unit from the back of the deque, while stolen units are taken from the front,
+ * where the largest unsplit units are.
+ * */
+public class NQueensWorkerAgent extends Agent
+{
+    public static final String WORK_UNIT = "work-unit";
+    public static final String WORK_REQUEST = "work-request";
+    public static final String WORK_RESULT = "work-result";
+    public static final String STEAL = "steal";
+
+    /**
+     * Units with at most this many rows left are counted in one go instead of split
+     * */
+    private final int LEAF_ROWS = 10;
+
+    private ArrayDeque<WorkUnit> workUnits;
+    private AID master;
+    private boolean workRequested;
+    private long solvedUnitCount;
+
+    protected void setup()
+    {
+        registerWorkerServices();
+
+        this.workUnits = new ArrayDeque<>();
+        this.workRequested = false;
+        this.solvedUnitCount = 0;
+
+        this.addBehaviour(new WorkServer());
+        this.addBehaviour(new WorkBehaviour());
+
+        System.out.println("NQueensWorkerAgent " + getAID().getName() + " is ready.");
+    }
+
+    protected void takeDown()
+    {
+        deregisterWorkerServices();
+        System.out.println("NQueensWorkerAgent " + getAID().getName() + " terminating.");
+    }
+
+    private void registerWorkerServices()
+    {
+        ServiceDescription workerService = new ServiceDescription();
+        workerService.setName(ServiceList.SRVC_NQUEENS_WORKER_NAME);
+        workerService.setType(ServiceList.SRVC_NQUEENS_WORKER_TYPE);
+
+        DFAgentDescription agentDescription = new DFAgentDescription();
+        agentDescription.setName(getAID());
+        agentDescription.addServices(workerService);
+
+        try
+        {
+            DFService.register(this, agentDescription);
+        }
+        catch (FIPAException fe)
+        {
+            fe.printStackTrace();
+        }
+    }
+
+    private void deregisterWorkerServices()
+    {
+        try
+        {
+            DFService.deregister(this);
+        }
+        catch (FIPAException fe)
+        {
+            fe.printStackTrace();
+        }
+    }
+
+    private void sendResult(long solutionCount, int weightExponent)
+    {
+        ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
+        msg.setConversationId(NQueensCodec.WORK_CONVERSATION_ID);
+        msg.setOntology(WORK_RESULT);
+        msg.addReceiver(this.master);
+        msg.setByteSequenceContent(NQueensCodec.encodeWorkResult(solutionCount, weightExponent, this.workUnits.size()));
+        send(msg);
+    }
+
+    /**
+     * Give the front half of my deque to a worker that ran out of work, or refuse if I have too little left
+     * */
+    private void handleSteal(ACLMessage steal)
+    {
+        AID thief = new AID(steal.getContent(), AID.ISGUID);
+        int stolenCount = this.workUnits.size() / 2;
+
+        if (stolenCount == 0)
+        {
+            ACLMessage refuse = steal.createReply();
+            refuse.setPerformative(ACLMessage.REFUSE);
+            refuse.setContent(steal.getContent());
+            send(refuse);
+            return;
+        }
+
+        for (int i = 0; i < stolenCount; i++)
+        {
+            ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
+            msg.setConversationId(NQueensCodec.WORK_CONVERSATION_ID);
+            msg.setOntology(WORK_UNIT);
+            msg.addReceiver(thief);
+            msg.addReplyTo(this.master);
+            msg.setByteSequenceContent(NQueensCodec.encode(this.workUnits.pollFirst()));
+            send(msg);
+        }
+
+        System.out.println(getName() + " - " + thief.getLocalName() + " stole " + stolenCount + " units");
+    }
+
+    //region Behaviours
+
+    /**
+     * Receives work units, steal requests from the master, and the end of the search
+     * */
+    private class WorkServer extends CyclicBehaviour
+    {
+        private final MessageTemplate mt = MessageTemplate.MatchConversationId(NQueensCodec.WORK_CONVERSATION_ID);
+
+        @Override
+        public void action()
+        {
+            ACLMessage msg = myAgent.receive(mt);
+
+            if (msg != null)
+            {
+                try
+                {
+                    if (WORK_UNIT.equals(msg.getOntology()))
+                    {
+                        // Stolen units are sent by the victim, with the master as reply-to
+                        jade.util.leap.Iterator replyTo = msg.getAllReplyTo();
+                        master = replyTo.hasNext() ? (AID)replyTo.next() : msg.getSender();
+
+                        workUnits.addLast(NQueensCodec.decodeWorkUnit(msg.getByteSequenceContent()));
+                        workRequested = false;
+                    }
+                    else if (STEAL.equals(msg.getOntology()))
+                    {
+                        handleSteal(msg);
+                    }
+                    else if (msg.getPerformative() == ACLMessage.CONFIRM)
+                    {
+                        System.out.println(myAgent.getName() + " - Search done, solved " + solvedUnitCount + " units");
+                        solvedUnitCount = 0;
+                    }
+                }
+                catch (Exception ex)
+                {
+                    ex.printStackTrace();
+                }
+            }
+            else
+            {
+                block();
+            }
+        }
+    }
+
+    /**
+     * Works on one unit per action, so steal requests are served in between
+     * */
+    private class WorkBehaviour extends CyclicBehaviour
+    {
+        private final NQueensSolver[] solvers = new NQueensSolver[NQueensSolver.MAX_N + 1];
+
+        @Override
+        public void action()
+        {
+            WorkUnit workUnit = workUnits.pollLast();
+
+            if (workUnit == null)
+            {
+                // Ask the master for more work once, then wait for a unit to arrive
+                if (master != null && !workRequested)
+                {
+                    ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
+                    msg.setConversationId(NQueensCodec.WORK_CONVERSATION_ID);
+                    msg.setOntology(WORK_REQUEST);
+                    msg.addReceiver(master);
+                    myAgent.send(msg);
+                    workRequested = true;
+                }
+
+                block();
+                return;
+            }
+
+            int n = workUnit.getPrefix().getN();
+
+            if (n - workUnit.getRowCount() > LEAF_ROWS)
+            {
+                ArrayList<WorkUnit> parts = workUnit.split();
+                if (parts.isEmpty())
+                    sendResult(0, workUnit.getWeightExponent());
+                else
+                    workUnits.addAll(parts);
+
+                return;
+            }
+
+            // A single thread per worker, the workers are the parallelism
+            if (solvers[n] == null)
+                solvers[n] = new NQueensSolver(n, 0, ForkJoinPool.commonPool());
+
+            long solutionCount = solvers[n].countSolutions(workUnit.getPrefixColumns());
+            solvedUnitCount++;
+            sendResult(solutionCount, workUnit.getWeightExponent());
+        }
+    }
+
+    //endregion
+}
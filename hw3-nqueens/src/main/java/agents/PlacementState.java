@@ -0,0 +1,282 @@
+package agents;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The queens placed so far on an n x n board, at most one queen per row.
+ * Besides the column of each row we keep column, diagonal and anti-diagonal occupancy bitsets,
+ * so checking a square is constant time and the safe columns of a row are computed with one mask per word.
+ * As a CspAssignment the rows are the variables and the columns their values.
+ * */
+public class PlacementState implements Serializable, CspAssignment
+{
+    public static final int EMPTY = -1;
+
+    private int n;
+    private int size;
+    /**
+     * Column of the queen in each row, EMPTY if there is no queen in the row.
+     * */
+    private int[] columns;
+    private long[] occupiedColumns;
+    /**
+     * Indexed by column - row + n - 1
+     * */
+    private long[] occupiedDiagonals;
+    /**
+     * Indexed by column + row
+     * */
+    private long[] occupiedAntiDiagonals;
+
+    public PlacementState(int n)
+    {
+        this.n = n;
+        this.size = 0;
+        this.columns = new int[n];
+        Arrays.fill(this.columns, EMPTY);
+        this.occupiedColumns = BitBoard.create(n);
+        this.occupiedDiagonals = BitBoard.create(2 * n - 1);
+        this.occupiedAntiDiagonals = BitBoard.create(2 * n - 1);
+    }
+
+    public PlacementState(PlacementState other)
+    {
+        this.n = other.n;
+        this.size = other.size;
+        this.columns = other.columns.clone();
+        this.occupiedColumns = other.occupiedColumns.clone();
+        this.occupiedDiagonals = other.occupiedDiagonals.clone();
+        this.occupiedAntiDiagonals = other.occupiedAntiDiagonals.clone();
+    }
+
+    public int getN()
+    {
+        return n;
+    }
+
+    /**
+     * Number of queens on the board
+     * */
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isPlaced(int row)
+    {
+        return columns[row] != EMPTY;
+    }
+
+    public int getColumn(int row)
+    {
+        return columns[row];
+    }
+
+    /**
+     * Get a copy of the column of each row, EMPTY for rows without a queen
+     * */
+    public int[] getColumns()
+    {
+        return columns.clone();
+    }
+
+    public void place(int row, int column)
+    {
+        if (isPlaced(row))
+            remove(row);
+
+        columns[row] = column;
+        size++;
+        BitBoard.set(occupiedColumns, column);
+        BitBoard.set(occupiedDiagonals, column - row + n - 1);
+        BitBoard.set(occupiedAntiDiagonals, column + row);
+    }
+
+    public void remove(int row)
+    {
+        int column = columns[row];
+        if (column == EMPTY)
+            return;
+
+        columns[row] = EMPTY;
+        size--;
+        BitBoard.clear(occupiedColumns, column);
+        BitBoard.clear(occupiedDiagonals, column - row + n - 1);
+        BitBoard.clear(occupiedAntiDiagonals, column + row);
+    }
+
+    /**
+     * Check if a square is safe, i.e. it is not on the same column or diagonal as any queen on the board.
+     * Rows are not checked, a row holds at most one queen.
+     * */
+    public boolean isSafe(int row, int column)
+    {
+        return !BitBoard.get(occupiedColumns, column)
+                && !BitBoard.get(occupiedDiagonals, column - row + n - 1)
+                && !BitBoard.get(occupiedAntiDiagonals, column + row);
+    }
+
+    /**
+     * Get the safe columns of a row as a bitset
+     * */
+    public long[] getSafeColumns(int row)
+    {
+        long[] safeColumns = BitBoard.create(n);
+        for (int i = 0; i < safeColumns.length; i++)
+            safeColumns[i] = safeColumnsWord(row, i);
+
+        return safeColumns;
+    }
+
+    /**
+     * Get the first safe column of a row that is not in the excluded bitset, EMPTY if there is none
+     * */
+    public int nextSafeColumn(int row, long[] excludedColumns)
+    {
+        for (int i = 0; i < excludedColumns.length; i++)
+        {
+            long candidates = safeColumnsWord(row, i) & ~excludedColumns[i];
+            if (candidates != 0)
+                return (i << 6) + Long.numberOfTrailingZeros(candidates);
+        }
+
+        return EMPTY;
+    }
+
+    /**
+     * Get the first safe column of a row at or after fromColumn that is not in the excluded bitset,
+     * wrapping around to the columns before fromColumn. EMPTY if there is none
+     * */
+    public int nextSafeColumn(int row, long[] excludedColumns, int fromColumn)
+    {
+        int fromWordIndex = fromColumn >>> 6;
+        for (int i = fromWordIndex; i < excludedColumns.length; i++)
+        {
+            long candidates = safeColumnsWord(row, i) & ~excludedColumns[i];
+            if (i == fromWordIndex)
+                candidates &= -1L << fromColumn;
+
+            if (candidates != 0)
+                return (i << 6) + Long.numberOfTrailingZeros(candidates);
+        }
+
+        return nextSafeColumn(row, excludedColumns);
+    }
+
+    /**
+     * Get the rows whose queens are the first (lowest row) to attack some column of the given row, as a bitset.
+     * Every unsafe column of the row is attacked by one of these queens, which makes them the conflict set
+     * used for backjumping when the row has no safe column left.
+     * */
+    public long[] getEarliestAttackers(int row)
+    {
+        long[] attackers = BitBoard.create(n);
+        long[] attackedColumns = BitBoard.create(n);
+
+        for (int r = 0; r < n; r++)
+        {
+            int column = columns[r];
+            if (column == EMPTY || r == row)
+                continue;
+
+            int distance = Math.abs(row - r);
+            boolean isFirstAttacker = markAttacked(attackedColumns, column);
+            isFirstAttacker |= markAttacked(attackedColumns, column + distance);
+            isFirstAttacker |= markAttacked(attackedColumns, column - distance);
+
+            if (isFirstAttacker)
+                BitBoard.set(attackers, r);
+        }
+
+        return attackers;
+    }
+
+    /**
+     * Mark a column as attacked, return true if it is on the board and was not attacked before
+     * */
+    private boolean markAttacked(long[] attackedColumns, int column)
+    {
+        if (column < 0 || column >= n || BitBoard.get(attackedColumns, column))
+            return false;
+
+        BitBoard.set(attackedColumns, column);
+        return true;
+    }
+
+    //region CspAssignment
+
+    @Override
+    public int getVariableCount()
+    {
+        return n;
+    }
+
+    @Override
+    public boolean isAssigned(int variable)
+    {
+        return isPlaced(variable);
+    }
+
+    @Override
+    public int getValue(int variable)
+    {
+        return getColumn(variable);
+    }
+
+    @Override
+    public int[] getValues()
+    {
+        return getColumns();
+    }
+
+    @Override
+    public void assign(int variable, int value)
+    {
+        place(variable, value);
+    }
+
+    @Override
+    public void unassign(int variable)
+    {
+        remove(variable);
+    }
+
+    @Override
+    public int nextConsistentValue(int variable, long[] excludedValues, int fromValue)
+    {
+        return nextSafeColumn(variable, excludedValues, fromValue);
+    }
+
+    @Override
+    public long[] getCulprits(int variable)
+    {
+        return getEarliestAttackers(variable);
+    }
+
+    //endregion
+
+    /**
+     * Safe columns [64 * wordIndex, 64 * wordIndex + 63] of a row.
+     * Column c of the row lies on diagonal c - row + n - 1 and anti-diagonal c + row,
+     * so both diagonal bitsets only need to be shifted to line up with the column bitset.
+     * */
+    private long safeColumnsWord(int row, int wordIndex)
+    {
+        int from = wordIndex << 6;
+        long attacked = occupiedColumns[wordIndex]
+                | BitBoard.wordAt(occupiedDiagonals, from + n - 1 - row)
+                | BitBoard.wordAt(occupiedAntiDiagonals, from + row);
+
+        return ~attacked & BitBoard.validMask(n, wordIndex);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PlacementState{" +
+                "n=" + n +
+                ", columns=" + Arrays.toString(columns) +
+                '}';
+    }
+}
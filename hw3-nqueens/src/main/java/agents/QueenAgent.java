@@ -1,451 +1,463 @@
 package agents;
 
 import jade.core.AID;
-import jade.core.Agent;
 import jade.core.behaviours.CyclicBehaviour;
 import jade.core.behaviours.OneShotBehaviour;
-import jade.core.behaviours.WakerBehaviour;
 import jade.domain.DFService;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
-import jade.domain.FIPAAgentManagement.Property;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
 import jade.domain.FIPAException;
 import jade.lang.acl.ACLMessage;
 import jade.lang.acl.MessageTemplate;
 
-import java.awt.*;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
-public class QueenAgent extends Agent
+/**
+ * N-Queens as a DistributedCspAgent: queen i places the queen of row i. Besides the chain and all modes of
+ * the base agent it has the solver and minconflicts modes, and symmetry breaking in all mode.
+ * */
+public class QueenAgent extends DistributedCspAgent
 {
-    private final String SET_POSITION_REQUEST = "set-position";
+    /**
+     * Search modes besides chain and all, given as the optional third command line argument.
+     * In solver mode queen 0 finds a solution with the in-memory NQueensSolver instead, and with count=true
+     * also counts all solutions.
+     * In minconflicts mode every queen holds a column and queen 0 aggregates the board, the queens in conflict
+     * repeatedly move to their min-conflict column until there are no conflicts. Meant for very large n.
+     * */
+    public static final String MODE_SOLVER = "solver";
+    public static final String MODE_MIN_CONFLICTS = "minconflicts";
 
-    private AID predecessor;
-    private AID successor;
     /**
-     * My ID.
+     * Symmetry breaking in all mode, given as the symmetry option.
+     * With mirror queen 0 only tries the left half of its row (and the middle column for odd n)
+     * and the last queen derives the mirror image of every solution instead of the chain searching for it.
+     * With canonical only the canonical solution of each class of 8 symmetric solutions is sent to the collector.
      * */
-    private int id;
+    public static final String SYMMETRY_MIRROR = "mirror";
+    public static final String SYMMETRY_CANONICAL = "canonical";
+
     /**
-     * Total number of queens. Will be arranged on an nxn matrix.
+     * Values of the board option. Solutions are printed as their column vector, with full the board is also
+     * streamed row by row, which is O(n^2) characters.
      * */
-    private int n;
-    private Point position;
-    private ArrayList<Point> triedPositions;
+    private final String BOARD_COMPACT = "compact";
+    private final String BOARD_FULL = "full";
 
-    protected void setup()
-    {
-        // Get command line arguments
-        Object[] args = getArguments();
-        if (args != null && args.length == 2)
-        {
-            try
-            {
-                this.id = Integer.parseInt((String)args[0]);
-                this.n = Integer.parseInt((String)args[1]);
-            }
-            catch (Exception ex)
-            {
-                System.err.println(ex);
-                System.out.println(getName() + " - Invalid command line arguments. Should be: [ID],[N]");
-                return;
-            }
-        }
-        else
-        {
-            System.out.println(getName() + " - Invalid command line arguments. Should be: [ID],[N]");
-            return;
-        }
+    private final String BOARD_INFORM = "board";
+    private final String COLUMN_INFORM = "column";
+    private final int MAX_MIN_CONFLICTS_ROUNDS = 100000;
 
-        registerQueenServices();
+    private long uniqueSolutionCount;
+    private String symmetry;
+    private boolean fullBoard;
+    private boolean countSolutions;
 
-        this.triedPositions = new ArrayList<>();
-        this.position = new Point(0, this.id);
+    @Override
+    protected CspProblem createProblem(int n)
+    {
+        return new NQueensProblem(n);
+    }
 
-        this.addBehaviour(new InitWakerBehaviour(this, 3000));
+    @Override
+    protected CspCodec createCodec(CspProblem problem)
+    {
+        return new NQueensCspCodec(problem);
+    }
 
-        System.out.println("QueenAgent " + getAID().getName() + " is ready. ID: " + this.id + " n: " + this.n);
+    @Override
+    protected String getProtocolName()
+    {
+        return NQueensCodec.CONVERSATION_ID;
     }
 
-    protected void takeDown()
+    @Override
+    protected String getServiceType()
     {
-        deregisterQueenServices();
-        System.out.println("QueenAgent " + getAID().getName() + " terminating.");
+        return ServiceList.SRVC_QUEEN_TYPE;
     }
 
-    /**
-     * Set the current position
-     * */
-    private void setPosition(Point position)
+    @Override
+    protected String getServiceName()
     {
-        this.position = position;
-        this.triedPositions.add(position);
-        System.out.println(getName() + " - Set position: [" + this.position.x + "," + this.position.y + "]");
+        return ServiceList.SRVC_QUEEN_NAME;
     }
 
-    /**
-     * Find and set the next safe position on my row in the matrix. Ignore positions we have already tried.
-     * Return true if successful, false otherwise
-     * */
-    private boolean findSafePosition(ArrayList<Point> queenPositions, ArrayList<Point> triedPositions)
+    @Override
+    protected boolean isSupportedMode(String mode)
+    {
+        return super.isSupportedMode(mode) || mode.equals(MODE_SOLVER) || mode.equals(MODE_MIN_CONFLICTS);
+    }
+
+    @Override
+    protected void readOptions(Map<String, String> options)
     {
-        // Iterate through my row in the matrix until I find a safe position I haven't tried yet
+        this.symmetry = options.get("symmetry");
+        if (this.symmetry != null && !getMode().equals(MODE_ALL))
+            throw new IllegalArgumentException("The symmetry option is only supported in all mode");
+        if (this.symmetry != null && !this.symmetry.equals(SYMMETRY_MIRROR) && !this.symmetry.equals(SYMMETRY_CANONICAL))
+            throw new IllegalArgumentException("Unknown symmetry: " + this.symmetry);
+
+        String board = options.getOrDefault("board", BOARD_COMPACT);
+        if (!board.equals(BOARD_COMPACT) && !board.equals(BOARD_FULL))
+            throw new IllegalArgumentException("Unknown board: " + board);
+        this.fullBoard = board.equals(BOARD_FULL);
+
+        // Counting takes hours above n = 20 and blocks queen 0 until it is done, so it is only done on request
+        this.countSolutions = "true".equals(options.get("count"));
+        if (this.countSolutions && !getMode().equals(MODE_SOLVER))
+            throw new IllegalArgumentException("The count option is only supported in solver mode");
+    }
 
-        Point pointToTry = new Point(0, this.id);
-        for (int x = 0; x < n; x++)
+    @Override
+    protected void startAgent()
+    {
+        if (getMode().equals(MODE_SOLVER))
         {
-            pointToTry.setLocation(x, pointToTry.y);
-            if (!triedPositions.contains(pointToTry) && isPointSafe(pointToTry, queenPositions))
-            {
-                setPosition(pointToTry);
-                return true;
-            }
+            // Queen 0 answers with the result of the in-memory solver, the other queens are not needed
+            if (getId() == 0)
+                this.addBehaviour(new SolverOneShotBehaviour(this));
         }
+        else
+        {
+            super.startAgent();
+        }
+    }
 
-        return false;
+    @Override
+    protected void startSearch()
+    {
+        if (getMode().equals(MODE_MIN_CONFLICTS))
+            startMinConflicts();
+        else
+            super.startSearch();
     }
 
     /**
-     * Check if a position is safe, i.e. it is not on the same row, column or diagonal as any other queen
+     * With symmetry breaking the right half of row 0 counts as tried from the start
      * */
-    private boolean isPointSafe(Point position, ArrayList<Point> queenPositions)
+    @Override
+    protected void excludeValues(long[] triedColumns)
     {
-        for(Point filledPosition : queenPositions)
-        {
-            if(position.x == filledPosition.x)
-            {
-                // this is no a safe position - the queens are in the same column
-                return false;
-            }
-            else
-            {
-                int deltaRow = Math.abs(position.y - filledPosition.y);
-                int deltaColumn = Math.abs(position.x - filledPosition.x);
-
-                if (deltaRow == deltaColumn)
-                {
-                    // this is not a safe position - the queens are on the same diagonal
-                    return false;
-                }
-            }
-        }
+        if (getId() != 0 || this.symmetry == null)
+            return;
 
-        return true;
+        for (int column = (getN() + 1) / 2; column < getN(); column++)
+            BitBoard.set(triedColumns, column);
     }
 
-    private String printChessboard(ArrayList<Point> filledPositions)
+    @Override
+    protected void emitSolution(CspAssignment assignment)
     {
-        StringBuilder sb = new StringBuilder();
-        Point pointToTest = new Point();
+        int[] columns = assignment.getValues();
 
-        for (int y = 0; y < n; y++)
+        if (this.symmetry == null)
         {
-            StringBuilder sbRow = new StringBuilder();
-
-            for (int x = 0; x < n ; x++)
-            {
-                pointToTest.setLocation(x, y);
-
-                if (filledPositions.contains(pointToTest))
-                {
-                    sbRow.append("[X] ");
-                }
-                else
-                {
-                    sbRow.append("[ ] ");
-                }
-            }
-
-            sb.append(sbRow.toString() + "\n");
+            addSolution(columns);
+        }
+        else if (this.symmetry.equals(SYMMETRY_MIRROR))
+        {
+            // Queen 0 only tries the left half, so the mirror image wasn't searched for.
+            // For odd n queen 0 also tries the middle column, and solutions starting there are mirrored by the search itself.
+            addSolution(columns);
+            if (columns[0] != getN() - 1 - columns[0])
+                addSolution(Symmetries.mirror(columns));
+        }
+        else if (Symmetries.isCanonical(columns))
+        {
+            // Every canonical solution has its first queen in the left half or the middle, so none are missed
+            this.uniqueSolutionCount++;
+            addDerivedSolutions(Symmetries.getClassSize(columns) - 1);
+            addSolution(columns);
         }
-
-        return sb.toString();
     }
 
-    private void registerQueenServices()
+    /**
+     * Print a solution as its column vector, and stream the board if it was asked for
+     * */
+    @Override
+    protected void printSolution(CspAssignment assignment)
     {
-        ServiceDescription queenService = new ServiceDescription();
-        queenService.setName(ServiceList.SRVC_QUEEN_NAME);
-        queenService.setType(ServiceList.SRVC_QUEEN_TYPE);
-        Property propQueenId = new Property();
-        propQueenId.setName("ID");
-        propQueenId.setValue(this.id);
-        queenService.addProperties(propQueenId);
-
-        DFAgentDescription agentDescription = new DFAgentDescription();
-        agentDescription.setName(getAID());
-        agentDescription.addServices(queenService);
+        System.out.println("SUCCESS!\n" + Arrays.toString(assignment.getValues()));
+
+        if (!this.fullBoard)
+            return;
 
         try
         {
-            DFService.register(this, agentDescription);
+            // Not closed, that would close System.out
+            Writer writer = new BufferedWriter(new OutputStreamWriter(System.out));
+            getProblem().write(assignment, writer);
+            writer.flush();
         }
-        catch (FIPAException fe)
+        catch (IOException ex)
         {
-            fe.printStackTrace();
+            System.err.println(ex);
         }
     }
 
-    private void deregisterQueenServices()
+    /**
+     * Search the DF for the solution collector
+     * */
+    @Override
+    protected AID findSolutionCollector()
     {
+        DFAgentDescription collectorServiceTemplate = new DFAgentDescription();
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(ServiceList.SRVC_SOLUTION_COLLECTOR_TYPE);
+        sd.setName(ServiceList.SRVC_SOLUTION_COLLECTOR_NAME);
+        collectorServiceTemplate.addServices(sd);
+
         try
         {
-            DFService.deregister(this);
+            DFAgentDescription[] result = DFService.search(this, collectorServiceTemplate);
+            if (result.length > 0)
+                return result[0].getName();
         }
         catch (FIPAException fe)
         {
             fe.printStackTrace();
         }
-    }
 
-    //region DF search
+        return null;
+    }
 
-    private DFAgentDescription getQueenWithIdAgentDescription(int id)
+    @Override
+    protected String getSearchResult(long solutionCount)
     {
-        DFAgentDescription queenServiceTemplate = new DFAgentDescription();
-
-        ServiceDescription sd = new ServiceDescription();
-        sd.setType(ServiceList.SRVC_QUEEN_TYPE);
-        sd.setName(ServiceList.SRVC_QUEEN_NAME);
-
-        Property propQueenId = new Property();
-        propQueenId.setName("ID");
-        propQueenId.setValue(id);
-        sd.addProperties(propQueenId);
+        String result = super.getSearchResult(solutionCount);
+        if (SYMMETRY_CANONICAL.equals(this.symmetry))
+            result = "Unique solutions: " + this.uniqueSolutionCount + " - " + result;
 
-        queenServiceTemplate.addServices(sd);
-
-        return queenServiceTemplate;
+        return result;
     }
 
     /**
-     * Search the DF for queens
-     */
-    private void getPredecessorAndSuccessor()
+     * Min-conflicts mode: pick a random column and report it to queen 0, which aggregates the board
+     * */
+    private void startMinConflicts()
     {
-        try
-        {
-            // Find predecessor
-
-            ArrayList<AID> foundPredecessors = new ArrayList<>();
+        addBehaviour(new MinConflictsQueenServer());
 
-            DFAgentDescription[] predecessorResult = DFService.search(this, getQueenWithIdAgentDescription(this.id-1));
+        if (getId() == 0)
+            addBehaviour(new MinConflictsAggregator());
 
-            for (int i = 0; i < predecessorResult.length; ++i)
-            {
-                foundPredecessors.add(predecessorResult[i].getName());
-            }
-
-            //System.out.println(getName() + " - Found " + foundPredecessors.size() + " predecessors: " + foundPredecessors);
-
-            // Find successors
+        sendColumnReport(getRandom().nextInt(getN()));
+    }
 
-            ArrayList<AID> foundSuccessors = new ArrayList<>();
+    private void sendColumnReport(int column)
+    {
+        ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
+        msg.setConversationId(NQueensCodec.MIN_CONFLICTS_CONVERSATION_ID);
+        msg.setOntology(COLUMN_INFORM);
+        msg.addReceiver(getDirectory()[0]);
+        msg.setByteSequenceContent(NQueensCodec.encodeColumnReport(getId(), column));
+        send(msg);
+    }
 
-            DFAgentDescription[] successorResult = DFService.search(this, getQueenWithIdAgentDescription(this.id+1));
+    //region Behaviours
 
-            for (int i = 0; i < successorResult.length; ++i)
-            {
-                foundSuccessors.add(successorResult[i].getName());
-            }
+    /**
+     * Min-conflicts mode: when queen 0 tells me I am in conflict, move to my min-conflict column on the board it sent
+     * */
+    private class MinConflictsQueenServer extends CyclicBehaviour
+    {
+        private final MessageTemplate mt = MessageTemplate.and(
+                MessageTemplate.and(
+                        MessageTemplate.MatchPerformative(ACLMessage.INFORM),
+                        MessageTemplate.MatchConversationId(NQueensCodec.MIN_CONFLICTS_CONVERSATION_ID)),
+                MessageTemplate.MatchOntology(BOARD_INFORM)
+        );
 
-            //System.out.println(getName() + " - Found " + foundSuccessors.size() + " successors: " + foundSuccessors);
+        @Override
+        public void action()
+        {
+            ACLMessage msg = myAgent.receive(mt);
 
-            if (foundPredecessors.size() == 1)
+            if (msg != null)
             {
-                this.predecessor = foundPredecessors.get(0);
+                ConflictBoard board = new ConflictBoard(NQueensCodec.decodeColumns(msg.getByteSequenceContent()));
+                sendColumnReport(board.getMinConflictColumn(getId(), getRandom()));
             }
-
-            if (foundSuccessors.size() == 1)
+            else
             {
-                this.successor = foundSuccessors.get(0);
+                block();
             }
-
-            System.out.println(getName()
-                    + " - Predecessor: " + (this.predecessor != null ? this.predecessor.getName() : "null")
-                    + " - Successor: " + (this.successor != null ? this.successor.getName() : "null")
-            );
-        }
-        catch (FIPAException fe)
-        {
-            fe.printStackTrace();
         }
     }
 
-    //endregion
-
-    //region Behaviours
-
-    private class InitWakerBehaviour extends WakerBehaviour
+    /**
+     * Min-conflicts mode, queen 0 only: collect the column of every queen, then run rounds where the board is sent
+     * to the queens in conflict and their new columns are applied one at a time, as long as they don't make
+     * the queen's conflicts worse given the moves applied before them.
+     * */
+    private class MinConflictsAggregator extends CyclicBehaviour
     {
-        public InitWakerBehaviour(QueenAgent a, long timeout)
+        private final MessageTemplate mt = MessageTemplate.and(
+                MessageTemplate.and(
+                        MessageTemplate.MatchPerformative(ACLMessage.INFORM),
+                        MessageTemplate.MatchConversationId(NQueensCodec.MIN_CONFLICTS_CONVERSATION_ID)),
+                MessageTemplate.MatchOntology(COLUMN_INFORM)
+        );
+
+        private int[] reportedColumns;
+        private int pendingReports;
+        private ConflictBoard board;
+        private int round;
+        private long moveCount;
+        private long startTime;
+
+        public MinConflictsAggregator()
         {
-            super(a, timeout);
+            this.reportedColumns = new int[getN()];
+            this.pendingReports = getN();
+            this.round = 0;
+            this.moveCount = 0;
+            this.startTime = System.currentTimeMillis();
         }
 
         @Override
-        protected void onWake()
+        public void action()
         {
-            super.onWake();
-
-            QueenAgent thisAgent = (QueenAgent)myAgent;
+            ACLMessage msg = myAgent.receive(mt);
 
-            getPredecessorAndSuccessor();
-            thisAgent.addBehaviour(new QueenServer());
+            if (msg != null)
+            {
+                int[] report = NQueensCodec.decodeColumnReport(msg.getByteSequenceContent());
+                reportedColumns[report[0]] = report[1];
 
-            if (thisAgent.id == 0)
+                if (--pendingReports == 0)
+                {
+                    applyReportedColumns();
+                    startRound();
+                }
+            }
+            else
             {
-                // The first queen (ID 0) selects a random position it its row and
-                // sends a SET_POSITION request to its successor
-
-                thisAgent.setPosition(new Point(ThreadLocalRandom.current().nextInt(thisAgent.n), 0));
-                ArrayList<Point> filledPositions = new ArrayList<>();
-                filledPositions.add(thisAgent.position);
-
-                thisAgent.addBehaviour(
-                        new SetPositionRequestSenderOneShotBehaviour(
-                                thisAgent,
-                                thisAgent.successor,
-                                filledPositions
-                                )
-                );
+                block();
             }
         }
-    }
 
-    private class QueenServer extends CyclicBehaviour
-    {
-        public void action()
+        private void applyReportedColumns()
         {
-            MessageTemplate mt = MessageTemplate.and(
-                    MessageTemplate.MatchPerformative(ACLMessage.REQUEST),
-                    MessageTemplate.MatchConversationId("nqueens")
-            );
-
-            ACLMessage msg = myAgent.receive(mt);
+            if (board == null)
+            {
+                // The initial columns of all the queens
+                board = new ConflictBoard(reportedColumns);
+                return;
+            }
 
-            if (msg != null)
+            for (int row = 0; row < getN(); row++)
             {
-                try
-                {
-                    String requestType = msg.getOntology();
-                    ArrayList<Point> filledPositions = (ArrayList<Point>) msg.getContentObject();
-
-                    if (requestType.equals(SET_POSITION_REQUEST))
-                    {
-                        // System.out.println(myAgent.getLocalName() + "got a SET_POSITION_REQUEST");
-
-                        QueenAgent thisAgent = (QueenAgent)myAgent;
-
-                        // if our current position is in the filled position list, we know we need to clear that
-                        // position and find another safe position
-                        if (filledPositions.contains(position))
-                        {
-                            // if our current position is in the filled position list, our successor didn't find a
-                            // safe position - so we need to remove our position from the filled position and
-                            //find a new one
-                            filledPositions.remove(position);
-                        }
-
-                        if (findSafePosition(filledPositions, triedPositions))
-                        {
-                            // we found a safe position
-                            // if we are the last queen the problem is solved
-                            // otherwise we add our position to the list of filled positions and
-                            // send it to our successor so he can find a position
-
-                            filledPositions.add(position);
-
-                            if (id == n-1)
-                            {
-                                // This is the last queen, we are done
-                                System.out.println("SUCCESS!\n" + printChessboard(filledPositions));
-                            }
-                            else
-                            {
-                                if (thisAgent.successor != null)
-                                {
-                                    System.out.println(thisAgent.getName()
-                                            + " - Sending request to successor: " + thisAgent.successor.getName()
-                                    );
-
-                                    addBehaviour(
-                                            new SetPositionRequestSenderOneShotBehaviour(
-                                                    thisAgent,
-                                                    thisAgent.successor,
-                                                    filledPositions
-                                            )
-                                    );
-                                }
-                            }
-                        }
-                        else
-                        {
-                            // we did not find any untried safe position
-                            // send message to predecessor, asking him to update his position
-                            triedPositions.clear();
-
-                            if (thisAgent.predecessor != null)
-                            {
-                                System.out.println(thisAgent.getName()
-                                        + " - Sending request to predecessor: " + thisAgent.predecessor.getName()
-                                );
-
-                                addBehaviour(
-                                        new SetPositionRequestSenderOneShotBehaviour(
-                                                thisAgent,
-                                                thisAgent.predecessor,
-                                                filledPositions
-                                        )
-                                );
-                            }
-                        }
-                    }
-                }
-                catch (Exception ex)
+                int column = reportedColumns[row];
+                int currentColumn = board.getColumn(row);
+
+                if (column != currentColumn && board.getConflicts(row, column) <= board.getConflicts(row, currentColumn))
                 {
-                    ex.printStackTrace();
+                    board.move(row, column);
+                    moveCount++;
                 }
             }
-            else
+        }
+
+        private void startRound()
+        {
+            ArrayList<Integer> conflictedRows = board.getConflictedRows();
+
+            if (conflictedRows.isEmpty())
             {
-                block();
+                CspAssignment assignment = getProblem().createAssignment();
+                for (int row = 0; row < getN(); row++)
+                    assignment.assign(row, board.getColumn(row));
+
+                printSolution(assignment);
+                reportResult(true, Arrays.toString(board.getColumns()));
+                cancelOtherChains();
+                System.out.println(myAgent.getName()
+                        + " - Min-conflicts rounds: " + round
+                        + " - Moves: " + moveCount
+                        + " - Time: " + (System.currentTimeMillis() - startTime) + " ms"
+                );
+                myAgent.removeBehaviour(this);
+                return;
+            }
+
+            if (++round > MAX_MIN_CONFLICTS_ROUNDS)
+            {
+                System.out.println(myAgent.getName() + " - Min-conflicts gave up after " + MAX_MIN_CONFLICTS_ROUNDS
+                        + " rounds with " + conflictedRows.size() + " queens in conflict");
+                reportResult(false, "Gave up after " + MAX_MIN_CONFLICTS_ROUNDS + " rounds");
+                myAgent.removeBehaviour(this);
+                return;
             }
+
+            // Queens that are not in conflict keep their column
+            int[] columns = board.getColumns();
+            System.arraycopy(columns, 0, reportedColumns, 0, getN());
+            pendingReports = conflictedRows.size();
+
+            ACLMessage boardMsg = new ACLMessage(ACLMessage.INFORM);
+            boardMsg.setConversationId(NQueensCodec.MIN_CONFLICTS_CONVERSATION_ID);
+            boardMsg.setOntology(BOARD_INFORM);
+            boardMsg.setByteSequenceContent(NQueensCodec.encodeColumns(columns));
+            for (int row : conflictedRows)
+                boardMsg.addReceiver(getDirectory()[row]);
+
+            myAgent.send(boardMsg);
         }
     }
 
-    private class SetPositionRequestSenderOneShotBehaviour extends OneShotBehaviour
+    private class SolverOneShotBehaviour extends OneShotBehaviour
     {
-        private AID recipient;
-        private ArrayList<Point> filledPositions;
-
-        public SetPositionRequestSenderOneShotBehaviour(Agent a, AID recipient, ArrayList<Point> filledPositions)
+        public SolverOneShotBehaviour(QueenAgent a)
         {
             super(a);
-            this.recipient = recipient;
-            this.filledPositions = filledPositions;
         }
 
         @Override
         public void action()
         {
-            ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
-            msg.setConversationId("nqueens");
-            msg.setOntology(SET_POSITION_REQUEST);
-            msg.addReceiver(this.recipient);
+            int n = getN();
+            System.out.println(myAgent.getName() + " - Solving with NQueensSolver, n: " + n);
+
+            long startTime = System.nanoTime();
+            NQueensSolver solver = new NQueensSolver(n);
+            int[] solution = solver.findFirstSolution();
+            long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
 
-            try
+            if (solution == null)
             {
-                msg.setContentObject(this.filledPositions);
+                System.out.println(myAgent.getName() + " - No solution for n: " + n);
+                reportResult(false, "No solution found");
+                return;
             }
-            catch (IOException ex)
+
+            CspAssignment assignment = getProblem().createAssignment();
+            for (int row = 0; row < n; row++)
+                assignment.assign(row, solution[row]);
+
+            printSolution(assignment);
+
+            if (!countSolutions)
             {
-                System.err.println(ex);
+                System.out.println(myAgent.getName() + " - Time: " + elapsedMillis + " ms");
+                reportResult(true, Arrays.toString(solution));
+                return;
             }
 
-            myAgent.send(msg);
+            long solutionCount = solver.countSolutions();
+            elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+
+            System.out.println(myAgent.getName()
+                    + " - Number of solutions: " + solutionCount
+                    + " - Time: " + elapsedMillis + " ms"
+                    + " - Solutions per second: " + (solutionCount * 1000 / Math.max(1, elapsedMillis))
+            );
+            reportResult(true, "Number of solutions: " + solutionCount);
         }
     }
 
@@ -0,0 +1,261 @@
+package agents;
+
+import jade.core.Agent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.OneShotBehaviour;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+import jade.wrapper.AgentController;
+import jade.wrapper.ContainerController;
+import jade.wrapper.StaleProxyException;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Spawns the queens of a board programmatically instead of listing them all on the command line.
+ * The queens are created in parallel and spread round-robin over the container of the launcher
+ * and optionally more local containers. The queens report their result back to the launcher,
+ * which prints the end-to-end latency from the creation of the first queen to the result.
+ * With the chains=K option a portfolio of K independent chains with different seeds is launched,
+ * the first chain to solve the board cancels the others.
+ * */
+public class QueenLauncherAgent extends Agent
+{
+    public static final String RESULT_CONVERSATION_ID = NQueensCodec.CONVERSATION_ID + "-result";
+
+    private int n;
+    private int containerCount;
+    private String mode;
+    /**
+     * key=value options passed on to every queen
+     * */
+    private ArrayList<String> queenOptions;
+    /**
+     * Portfolio: number of independent chains and the seed of the first chain
+     * */
+    private int chainCount;
+    private long seed;
+    private boolean hasSeed;
+    private boolean resultReceived;
+    private ArrayList<ContainerController> containers;
+    private long startTime;
+    private long createdTime;
+
+    protected void setup()
+    {
+        Object[] args = getArguments();
+        if (args != null && args.length >= 1)
+        {
+            try
+            {
+                this.n = Integer.parseInt((String)args[0]);
+                this.containerCount = args.length >= 2 ? Integer.parseInt((String)args[1]) : 1;
+                this.mode = args.length >= 3 ? (String)args[2] : QueenAgent.MODE_CHAIN;
+
+                this.queenOptions = new ArrayList<>();
+                this.chainCount = 1;
+                this.seed = 0;
+                for (int i = 3; i < args.length; i++)
+                {
+                    String option = (String)args[i];
+                    if (option.startsWith("chains="))
+                    {
+                        this.chainCount = Integer.parseInt(option.substring("chains=".length()));
+                    }
+                    else if (option.startsWith("seed="))
+                    {
+                        this.seed = Long.parseLong(option.substring("seed=".length()));
+                        this.hasSeed = true;
+                    }
+                    else
+                    {
+                        this.queenOptions.add(option);
+                    }
+                }
+
+                if (this.n < 1 || this.containerCount < 1 || this.chainCount < 1)
+                    throw new IllegalArgumentException("N, CONTAINERS and chains must be positive");
+            }
+            catch (Exception ex)
+            {
+                System.err.println(ex);
+                System.out.println(getName() + " - Invalid command line arguments. Should be: [N], [N],[CONTAINERS] or [N],[CONTAINERS],[MODE],[KEY=VALUE]...");
+                return;
+            }
+        }
+        else
+        {
+            System.out.println(getName() + " - Invalid command line arguments. Should be: [N], [N],[CONTAINERS] or [N],[CONTAINERS],[MODE],[KEY=VALUE]...");
+            return;
+        }
+
+        System.out.println("QueenLauncherAgent " + getAID().getName() + " is ready. N: " + this.n
+                + " - Containers: " + this.containerCount + " - Mode: " + this.mode + " - Chains: " + this.chainCount);
+
+        this.addBehaviour(new ResultServer());
+        this.addBehaviour(new LaunchOneShotBehaviour());
+    }
+
+    protected void takeDown()
+    {
+        System.out.println("QueenLauncherAgent " + getAID().getName() + " terminating.");
+    }
+
+    /**
+     * The container of the launcher plus containerCount - 1 new containers in this JVM,
+     * attached to the same main container as the launcher
+     * */
+    private ArrayList<ContainerController> createContainers()
+    {
+        ArrayList<ContainerController> containers = new ArrayList<>();
+        containers.add(getContainerController());
+
+        String host = getProperty(Profile.MAIN_HOST, "localhost");
+        String port = getProperty(Profile.MAIN_PORT, getProperty(Profile.LOCAL_PORT, "1099"));
+
+        for (int i = 1; i < this.containerCount; i++)
+        {
+            ProfileImpl profile = new ProfileImpl(false);
+            profile.setParameter(Profile.MAIN_HOST, host);
+            profile.setParameter(Profile.MAIN_PORT, port);
+            profile.setParameter(Profile.CONTAINER_NAME, "queens-" + i);
+
+            ContainerController container = jade.core.Runtime.instance().createAgentContainer(profile);
+            if (container != null)
+                containers.add(container);
+            else
+                System.err.println(getName() + " - Could not create container queens-" + i);
+        }
+
+        return containers;
+    }
+
+    private void createAgent(ContainerController container, String name, String className, Object[] args)
+            throws StaleProxyException
+    {
+        AgentController agentController = container.createNewAgent(name, className, args);
+        agentController.start();
+    }
+
+    private void createQueens()
+    {
+        // Only queen 0 does any work in solver mode
+        int chainLength = QueenAgent.MODE_SOLVER.equals(this.mode) ? 1 : this.n;
+        int queenCount = chainLength * this.chainCount;
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(queenCount,
+                Math.max(this.containers.size(), Runtime.getRuntime().availableProcessors())));
+        ArrayList<Future<?>> creations = new ArrayList<>();
+
+        this.startTime = System.nanoTime();
+
+        for (int i = 0; i < queenCount; i++)
+        {
+            final ContainerController container = this.containers.get(i % this.containers.size());
+            int chain = i / chainLength;
+            int queenId = i % chainLength;
+            final String name = this.chainCount > 1 ? "queen_" + chain + "_" + queenId : "queen_" + queenId;
+
+            ArrayList<String> queenArgs = new ArrayList<>();
+            queenArgs.add(Integer.toString(queenId));
+            queenArgs.add(Integer.toString(this.n));
+            queenArgs.add(this.mode);
+            queenArgs.add("launcher=" + getLocalName());
+            queenArgs.addAll(this.queenOptions);
+            if (this.chainCount > 1)
+                queenArgs.add("chain=" + chain);
+            if (this.chainCount > 1 || this.hasSeed)
+                queenArgs.add("seed=" + (this.seed + chain));
+            final Object[] args = queenArgs.toArray();
+
+            creations.add(executor.submit(() -> {
+                createAgent(container, name, QueenAgent.class.getName(), args);
+                return null;
+            }));
+        }
+
+        try
+        {
+            for (Future<?> creation : creations)
+                creation.get();
+        }
+        catch (Exception ex)
+        {
+            System.err.println(getName() + " - Could not create queens - " + ex);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        this.createdTime = System.nanoTime();
+        System.out.println(getName() + " - Created " + queenCount + " queens in "
+                + (this.createdTime - this.startTime) / 1000000 + " ms");
+    }
+
+    //region Behaviours
+
+    private class LaunchOneShotBehaviour extends OneShotBehaviour
+    {
+        public void action()
+        {
+            containers = createContainers();
+
+            if (QueenAgent.MODE_ALL.equals(mode))
+            {
+                try
+                {
+                    createAgent(containers.get(0), "collector", SolutionCollectorAgent.class.getName(), null);
+                }
+                catch (StaleProxyException ex)
+                {
+                    System.err.println(myAgent.getName() + " - Could not create solution collector - " + ex);
+                }
+            }
+
+            createQueens();
+        }
+    }
+
+    /**
+     * Receives the result of the search from the queen that finished it
+     * */
+    private class ResultServer extends CyclicBehaviour
+    {
+        private final MessageTemplate mt = MessageTemplate.MatchConversationId(RESULT_CONVERSATION_ID);
+
+        public void action()
+        {
+            ACLMessage msg = myAgent.receive(mt);
+
+            if (msg != null)
+            {
+                long endTime = System.nanoTime();
+
+                // Portfolio: only the first chain to finish counts
+                if (resultReceived && chainCount > 1)
+                    return;
+
+                resultReceived = true;
+
+                System.out.println(myAgent.getName()
+                        + (msg.getPerformative() == ACLMessage.INFORM ? " - SUCCESS from " : " - FAILURE from ")
+                        + msg.getSender().getLocalName() + ": " + msg.getContent()
+                        + " - Creation: " + (createdTime - startTime) / 1000000 + " ms"
+                        + " - End to end: " + (endTime - startTime) / 1000000 + " ms"
+                );
+            }
+            else
+            {
+                block();
+            }
+        }
+    }
+
+    //endregion
+}
@@ -5,4 +5,12 @@ public class ServiceList
     // Queen services
     public static final String SRVC_QUEEN_TYPE = "queen";
     public static final String SRVC_QUEEN_NAME = "queen_name";
+
+    // Solution collector services
+    public static final String SRVC_SOLUTION_COLLECTOR_TYPE = "solution_collector";
+    public static final String SRVC_SOLUTION_COLLECTOR_NAME = "solution_collector_name";
+
+    // N-Queens worker services
+    public static final String SRVC_NQUEENS_WORKER_TYPE = "nqueens_worker";
+    public static final String SRVC_NQUEENS_WORKER_NAME = "nqueens_worker_name";
 }
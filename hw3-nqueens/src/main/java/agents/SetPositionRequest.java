@@ -0,0 +1,37 @@
+package agents;
+
+/**
+ * Content of a SET_POSITION request: the assignment so far and the conflict set.
+ * The conflict set is empty when an agent passes the assignment forward. When an agent runs out of consistent values
+ * it holds the variables whose values caused the failure, and the request goes straight to the deepest of them.
+ * For N-Queens the assignment is a PlacementState and the variables are the rows.
+ * */
+public class SetPositionRequest
+{
+    private CspAssignment assignment;
+    /**
+     * Variables as a bitset
+     * */
+    private long[] conflictSet;
+
+    public SetPositionRequest(CspAssignment assignment)
+    {
+        this(assignment, BitBoard.create(assignment.getVariableCount()));
+    }
+
+    public SetPositionRequest(CspAssignment assignment, long[] conflictSet)
+    {
+        this.assignment = assignment;
+        this.conflictSet = conflictSet;
+    }
+
+    public CspAssignment getAssignment()
+    {
+        return assignment;
+    }
+
+    public long[] getConflictSet()
+    {
+        return conflictSet;
+    }
+}
@@ -0,0 +1,116 @@
+package agents;
+
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+
+/**
+ * Receives the solution batches streamed by the last queen in the all-solutions mode.
+ * Solutions are only counted, not kept, and the throughput is printed when the search space is exhausted.
+ * */
+public class SolutionCollectorAgent extends Agent
+{
+    private long solutionCount;
+    private int batchCount;
+    private long startTime;
+
+    protected void setup()
+    {
+        registerCollectorServices();
+
+        this.startTime = System.currentTimeMillis();
+
+        this.addBehaviour(new SolutionBatchServer());
+
+        System.out.println("SolutionCollectorAgent " + getAID().getName() + " is ready.");
+    }
+
+    protected void takeDown()
+    {
+        deregisterCollectorServices();
+        System.out.println("SolutionCollectorAgent " + getAID().getName() + " terminating.");
+    }
+
+    private void registerCollectorServices()
+    {
+        ServiceDescription collectorService = new ServiceDescription();
+        collectorService.setName(ServiceList.SRVC_SOLUTION_COLLECTOR_NAME);
+        collectorService.setType(ServiceList.SRVC_SOLUTION_COLLECTOR_TYPE);
+
+        DFAgentDescription agentDescription = new DFAgentDescription();
+        agentDescription.setName(getAID());
+        agentDescription.addServices(collectorService);
+
+        try
+        {
+            DFService.register(this, agentDescription);
+        }
+        catch (FIPAException fe)
+        {
+            fe.printStackTrace();
+        }
+    }
+
+    private void deregisterCollectorServices()
+    {
+        try
+        {
+            DFService.deregister(this);
+        }
+        catch (FIPAException fe)
+        {
+            fe.printStackTrace();
+        }
+    }
+
+    private class SolutionBatchServer extends CyclicBehaviour
+    {
+        private final MessageTemplate mt = MessageTemplate.and(
+                MessageTemplate.MatchPerformative(ACLMessage.INFORM),
+                MessageTemplate.MatchConversationId(NQueensCodec.SOLUTIONS_CONVERSATION_ID)
+        );
+
+        public void action()
+        {
+            ACLMessage msg = myAgent.receive(mt);
+
+            if (msg != null)
+            {
+                try
+                {
+                    batchCount++;
+                    solutionCount += NQueensCodec.decodeSolutionCount(msg.getByteSequenceContent());
+
+                    if (DistributedCspAgent.LAST_SOLUTION_BATCH.equals(msg.getOntology()))
+                    {
+                        long elapsedMillis = System.currentTimeMillis() - startTime;
+
+                        System.out.println(myAgent.getName()
+                                + " - Search space exhausted. Number of solutions: " + solutionCount
+                                + " - Batches: " + batchCount
+                                + " - Time: " + elapsedMillis + " ms"
+                                + " - Solutions per second: " + (solutionCount * 1000 / Math.max(1, elapsedMillis))
+                        );
+
+                        solutionCount = 0;
+                        batchCount = 0;
+                        startTime = System.currentTimeMillis();
+                    }
+                }
+                catch (Exception ex)
+                {
+                    ex.printStackTrace();
+                }
+            }
+            else
+            {
+                block();
+            }
+        }
+    }
+}
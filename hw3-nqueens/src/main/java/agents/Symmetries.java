@@ -0,0 +1,108 @@
+package agents;
+
+/**
+ * The 8 symmetries of the board (rotations and reflections) applied to a solution given as the column of each row.
+ * A solution is canonical if it is the lexicographically smallest of its symmetric solutions,
+ * every class of symmetric solutions has exactly one canonical solution.
+ * */
+public final class Symmetries
+{
+    public static final int COUNT = 8;
+
+    private Symmetries()
+    {
+    }
+
+    /**
+     * Reflect the solution about the vertical axis, column c becomes column n - 1 - c
+     * */
+    public static int[] mirror(int[] columns)
+    {
+        int n = columns.length;
+        int[] mirrored = new int[n];
+        for (int row = 0; row < n; row++)
+            mirrored[row] = n - 1 - columns[row];
+
+        return mirrored;
+    }
+
+    /**
+     * Get the solution under each of the 8 symmetries, the first one is the solution itself
+     * */
+    public static int[][] getSymmetries(int[] columns)
+    {
+        int n = columns.length;
+        int[][] symmetries = new int[COUNT][n];
+
+        for (int row = 0; row < n; row++)
+        {
+            int column = columns[row];
+
+            symmetries[0][row] = column;
+            // Reflections about the vertical axis, the horizontal axis, and rotation by 180 degrees
+            symmetries[1][row] = n - 1 - column;
+            symmetries[2][n - 1 - row] = column;
+            symmetries[3][n - 1 - row] = n - 1 - column;
+            // Reflection about the main diagonal, rotations by 90 and 270 degrees, reflection about the anti-diagonal
+            symmetries[4][column] = row;
+            symmetries[5][column] = n - 1 - row;
+            symmetries[6][n - 1 - column] = row;
+            symmetries[7][n - 1 - column] = n - 1 - row;
+        }
+
+        return symmetries;
+    }
+
+    public static boolean isCanonical(int[] columns)
+    {
+        int[][] symmetries = getSymmetries(columns);
+        for (int i = 1; i < COUNT; i++)
+        {
+            if (compare(symmetries[i], columns) < 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    public static int[] canonicalize(int[] columns)
+    {
+        int[][] symmetries = getSymmetries(columns);
+        int[] canonical = symmetries[0];
+        for (int i = 1; i < COUNT; i++)
+        {
+            if (compare(symmetries[i], canonical) < 0)
+                canonical = symmetries[i];
+        }
+
+        return canonical;
+    }
+
+    /**
+     * Number of distinct solutions among the 8 symmetric solutions: 8, 4 (symmetric under rotation by 180 degrees)
+     * or 2 (symmetric under rotation by 90 degrees)
+     * */
+    public static int getClassSize(int[] columns)
+    {
+        int[][] symmetries = getSymmetries(columns);
+        int identical = 0;
+        for (int i = 0; i < COUNT; i++)
+        {
+            if (compare(symmetries[i], columns) == 0)
+                identical++;
+        }
+
+        return COUNT / identical;
+    }
+
+    private static int compare(int[] a, int[] b)
+    {
+        for (int i = 0; i < a.length; i++)
+        {
+            if (a[i] != b[i])
+                return a[i] < b[i] ? -1 : 1;
+        }
+
+        return 0;
+    }
+}
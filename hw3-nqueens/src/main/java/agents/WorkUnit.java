@@ -0,0 +1,104 @@
+package agents;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A subproblem of the master/worker mode: the queens of the first rows, the solutions below them are counted.
+ * Every unit has a weight. When a unit is split its weight is divided among the parts, and a worker returns
+ * the weight of every unit it finishes, so the master knows the search is done when all weight has come back,
+ * no matter how often units were split or stolen.
+ * The weight is a power of two, 2^-weightExponent of a unit created by the master, so dividing it is exact and
+ * never reaches 0 however deep the units are split: a unit split into count parts gives every part
+ * 2^-k or 2^-(k+1) of its weight, with k = floor(log2(count)), and the parts add up to the whole unit.
+ * */
+public class WorkUnit
+{
+    /**
+     * Smallest weight a unit may have, 2^-MAX_WEIGHT_EXPONENT. Far more than n * log2(n) + n for any board
+     * that can be searched, so a split that would go below it means the weights are broken
+     * */
+    public static final int MAX_WEIGHT_EXPONENT = 1 << 16;
+
+    private PlacementState prefix;
+    private int weightExponent;
+
+    public WorkUnit(PlacementState prefix, int weightExponent)
+    {
+        if (weightExponent < 0 || weightExponent > MAX_WEIGHT_EXPONENT)
+            throw new IllegalArgumentException("Weight exponent out of range: " + weightExponent);
+
+        this.prefix = prefix;
+        this.weightExponent = weightExponent;
+    }
+
+    public PlacementState getPrefix()
+    {
+        return prefix;
+    }
+
+    /**
+     * The weight of the unit is 2^-weightExponent
+     * */
+    public int getWeightExponent()
+    {
+        return weightExponent;
+    }
+
+    /**
+     * Number of rows with a queen, the prefix rows
+     * */
+    public int getRowCount()
+    {
+        return prefix.size();
+    }
+
+    /**
+     * Get the columns of the prefix rows
+     * */
+    public int[] getPrefixColumns()
+    {
+        return Arrays.copyOf(prefix.getColumns(), prefix.size());
+    }
+
+    /**
+     * Split the unit into one unit for each safe column of the next row, dividing the weight among them.
+     * Returns an empty list if the next row has no safe column.
+     * */
+    public ArrayList<WorkUnit> split()
+    {
+        int row = prefix.size();
+        long[] safeColumns = prefix.getSafeColumns(row);
+        int count = BitBoard.cardinality(safeColumns);
+
+        // 2^k <= count < 2^(k+1): the first 2 * (count - 2^k) parts get 2^-(k+1) of the weight, the others 2^-k
+        int k = 31 - Integer.numberOfLeadingZeros(Math.max(1, count));
+        int smallPartCount = 2 * (count - (1 << k));
+        if (count > 0 && weightExponent + k + (smallPartCount > 0 ? 1 : 0) > MAX_WEIGHT_EXPONENT)
+            throw new IllegalStateException("Can not split " + this + " into " + count + " parts, the weight would be 0");
+
+        ArrayList<WorkUnit> parts = new ArrayList<>(count);
+        int column = BitBoard.nextSetBit(safeColumns, 0);
+        for (int i = 0; column >= 0; i++)
+        {
+            PlacementState partPrefix = new PlacementState(prefix);
+            partPrefix.place(row, column);
+
+            int partWeightExponent = weightExponent + k + (i < smallPartCount ? 1 : 0);
+            parts.add(new WorkUnit(partPrefix, partWeightExponent));
+
+            column = BitBoard.nextSetBit(safeColumns, column + 1);
+        }
+
+        return parts;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "WorkUnit{" +
+                "prefix=" + Arrays.toString(getPrefixColumns()) +
+                ", weight=2^-" + weightExponent +
+                '}';
+    }
+}
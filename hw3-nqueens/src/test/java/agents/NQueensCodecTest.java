@@ -0,0 +1,183 @@
+package agents;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NQueensCodecTest
+{
+    @Test
+    public void varintRoundTrip()
+    {
+        int[] values = { 0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE };
+        long[] longValues = { 0, 1, 127, 128, 1L << 35, Long.MAX_VALUE, -1, Long.MIN_VALUE };
+
+        NQueensCodec.Writer writer = new NQueensCodec.Writer(1);
+        for (int value : values)
+            writer.writeVarint(value);
+        for (long value : longValues)
+            writer.writeVarLong(value);
+
+        NQueensCodec.Reader reader = new NQueensCodec.Reader(writer.toByteArray());
+        for (int value : values)
+            assertEquals(value, reader.readVarint());
+        for (long value : longValues)
+            assertEquals(value, reader.readVarLong());
+        assertFalse(reader.hasRemaining());
+    }
+
+    @Test
+    public void varintUsesSevenBitsPerByte()
+    {
+        assertEquals(1, varintLength(0));
+        assertEquals(1, varintLength(127));
+        assertEquals(2, varintLength(128));
+        assertEquals(2, varintLength(16383));
+        assertEquals(3, varintLength(16384));
+        assertEquals(5, varintLength(-1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedVarintIsRejected()
+    {
+        new NQueensCodec.Reader(new byte[] { (byte)0x80, (byte)0x80 }).readVarint();
+    }
+
+    @Test
+    public void placementRoundTrip()
+    {
+        PlacementState placementState = new PlacementState(10);
+        placementState.place(0, 9);
+        placementState.place(2, 0);
+        placementState.place(5, 3);
+
+        byte[] content = NQueensCodec.encode(placementState);
+        // n, the number of rows up to the last queen and one byte per row
+        assertEquals(2 + 6, content.length);
+
+        PlacementState decoded = NQueensCodec.decode(content);
+        assertEquals(10, decoded.getN());
+        assertEquals(3, decoded.size());
+        assertArrayEquals(placementState.getColumns(), decoded.getColumns());
+        assertFalse(decoded.isSafe(9, 3));
+        assertArrayEquals(placementState.getColumns(), NQueensCodec.decodeColumns(content));
+    }
+
+    @Test
+    public void emptyPlacementRoundTrip()
+    {
+        PlacementState decoded = NQueensCodec.decode(NQueensCodec.encode(new PlacementState(70)));
+        assertEquals(70, decoded.getN());
+        assertEquals(0, decoded.size());
+    }
+
+    @Test
+    public void requestRoundTrip()
+    {
+        PlacementState placementState = new PlacementState(70);
+        placementState.place(0, 1);
+        placementState.place(68, 69);
+
+        long[] conflictSet = BitBoard.create(70);
+        BitBoard.set(conflictSet, 0);
+        BitBoard.set(conflictSet, 68);
+
+        byte[] content = NQueensCodec.encode(new SetPositionRequest(placementState, conflictSet));
+
+        SetPositionRequest request = NQueensCodec.decodeRequest(content);
+        assertArrayEquals(placementState.getValues(), request.getAssignment().getValues());
+        assertArrayEquals(conflictSet, request.getConflictSet());
+
+        SetPositionRequest problemRequest = NQueensCodec.decodeRequest(content, new NQueensProblem(70));
+        assertArrayEquals(placementState.getValues(), problemRequest.getAssignment().getValues());
+        assertArrayEquals(conflictSet, problemRequest.getConflictSet());
+    }
+
+    @Test
+    public void requestWithoutConflictSetHasEmptyConflictSet()
+    {
+        PlacementState placementState = new PlacementState(8);
+        placementState.place(0, 4);
+
+        SetPositionRequest request = NQueensCodec.decodeRequest(NQueensCodec.encode(placementState));
+        assertArrayEquals(placementState.getValues(), request.getAssignment().getValues());
+        assertTrue(BitBoard.isEmpty(request.getConflictSet()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void assignmentOfAnotherSizeIsRejected()
+    {
+        NQueensCodec.decodeRequest(NQueensCodec.encode(new PlacementState(8)), new NQueensProblem(9));
+    }
+
+    @Test
+    public void solutionBatchRoundTrip()
+    {
+        List<int[]> solutions = new ArrayList<>();
+        solutions.add(new int[] { 1, 3, 0, 2 });
+        solutions.add(new int[] { 2, 0, 3, 1 });
+
+        byte[] content = NQueensCodec.encodeSolutionBatch(4, solutions);
+        assertEquals(2, NQueensCodec.decodeSolutionCount(content));
+
+        int[][] decoded = NQueensCodec.decodeSolutionBatch(content);
+        assertEquals(2, decoded.length);
+        assertArrayEquals(solutions.get(0), decoded[0]);
+        assertArrayEquals(solutions.get(1), decoded[1]);
+
+        CspCodec codec = new NQueensCspCodec(new NQueensProblem(4));
+        assertArrayEquals(content, codec.encodeSolutionBatch(solutions));
+    }
+
+    @Test
+    public void emptySolutionBatchRoundTrip()
+    {
+        byte[] content = NQueensCodec.encodeSolutionBatch(8, new ArrayList<int[]>());
+        assertEquals(0, NQueensCodec.decodeSolutionCount(content));
+        assertEquals(0, NQueensCodec.decodeSolutionBatch(content).length);
+    }
+
+    @Test
+    public void checkpointRoundTrip()
+    {
+        PlacementState placementState = new PlacementState(12);
+        placementState.place(0, 5);
+        placementState.place(1, 0);
+        placementState.place(2, 7);
+
+        Checkpoint checkpoint = new Checkpoint(1L << 40, 3, 5, 14200, placementState);
+        CspCodec codec = new NQueensCspCodec(new NQueensProblem(12));
+        Checkpoint decoded = codec.decodeCheckpoint(codec.encode(checkpoint));
+
+        assertEquals(1L << 40, decoded.getStep());
+        assertEquals(3, decoded.getRecipientVariable());
+        assertEquals(5, decoded.getFirstValue());
+        assertEquals(14200, decoded.getSolutionCount());
+        assertArrayEquals(placementState.getValues(), decoded.getAssignment().getValues());
+    }
+
+    @Test
+    public void workUnitRoundTrip()
+    {
+        PlacementState prefix = new PlacementState(9);
+        prefix.place(0, 2);
+        prefix.place(1, 4);
+
+        WorkUnit decoded = NQueensCodec.decodeWorkUnit(NQueensCodec.encode(new WorkUnit(prefix, 7)));
+        assertEquals(7, decoded.getWeightExponent());
+        assertArrayEquals(new int[] { 2, 4 }, decoded.getPrefixColumns());
+
+        long[] result = NQueensCodec.decodeWorkResult(NQueensCodec.encodeWorkResult(352, 7, 3));
+        assertArrayEquals(new long[] { 352, 7, 3 }, result);
+    }
+
+    private static int varintLength(int value)
+    {
+        NQueensCodec.Writer writer = new NQueensCodec.Writer(1);
+        writer.writeVarint(value);
+        return writer.toByteArray().length;
+    }
+}
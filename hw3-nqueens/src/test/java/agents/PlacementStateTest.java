@@ -0,0 +1,207 @@
+package agents;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PlacementStateTest
+{
+    @Test
+    public void emptyBoardIsSafeEverywhere()
+    {
+        PlacementState placementState = new PlacementState(8);
+        for (int row = 0; row < 8; row++)
+        {
+            for (int column = 0; column < 8; column++)
+                assertTrue(placementState.isSafe(row, column));
+        }
+    }
+
+    @Test
+    public void queenAttacksItsColumnAndDiagonals()
+    {
+        PlacementState placementState = new PlacementState(8);
+        placementState.place(2, 3);
+
+        assertFalse(placementState.isSafe(5, 3));
+        assertFalse(placementState.isSafe(0, 1));
+        assertFalse(placementState.isSafe(0, 5));
+        assertFalse(placementState.isSafe(4, 1));
+        assertTrue(placementState.isSafe(0, 2));
+        assertTrue(placementState.isSafe(4, 2));
+        assertTrue(placementState.isSafe(7, 7));
+    }
+
+    @Test
+    public void removeFreesTheSquares()
+    {
+        PlacementState placementState = new PlacementState(8);
+        placementState.place(0, 0);
+        placementState.place(1, 2);
+        placementState.remove(0);
+
+        assertEquals(1, placementState.size());
+        assertFalse(placementState.isPlaced(0));
+        assertEquals(PlacementState.EMPTY, placementState.getColumn(0));
+        assertTrue(placementState.isSafe(7, 0));
+        assertTrue(placementState.isSafe(7, 7));
+        assertFalse(placementState.isSafe(3, 2));
+    }
+
+    @Test
+    public void safeQueriesMatchBruteForce()
+    {
+        // Boards of one and two words, with queens in the middle rows so that both diagonal directions are used
+        int[][] boards = {
+                { 1, 3, PlacementState.EMPTY, PlacementState.EMPTY, 2, PlacementState.EMPTY },
+                { 0, 4, 7, 5, PlacementState.EMPTY, PlacementState.EMPTY, PlacementState.EMPTY, PlacementState.EMPTY },
+                boardWithQueens(70, new int[] { 0, 66, 3, 65 }, new int[] { 1, 5, 40, 69 })
+        };
+
+        for (int[] columns : boards)
+        {
+            int n = columns.length;
+            PlacementState placementState = place(columns);
+
+            for (int row = 0; row < n; row++)
+            {
+                // A row with a queen is attacked by its own queen
+                if (columns[row] != PlacementState.EMPTY)
+                    continue;
+
+                long[] safeColumns = placementState.getSafeColumns(row);
+                for (int column = 0; column < n; column++)
+                {
+                    boolean expected = isSafeBruteForce(columns, row, column);
+                    assertEquals("row " + row + " column " + column, expected, placementState.isSafe(row, column));
+                    assertEquals("row " + row + " column " + column, expected, BitBoard.get(safeColumns, column));
+                }
+                assertEquals(-1, BitBoard.nextSetBit(safeColumns, n));
+            }
+        }
+    }
+
+    @Test
+    public void nextSafeColumnSkipsExcludedAndWraps()
+    {
+        PlacementState placementState = new PlacementState(8);
+        placementState.place(0, 0);
+
+        // Row 1 is attacked in columns 0 and 1
+        long[] excluded = BitBoard.create(8);
+        assertEquals(2, placementState.nextSafeColumn(1, excluded));
+
+        BitBoard.set(excluded, 2);
+        assertEquals(3, placementState.nextSafeColumn(1, excluded));
+        assertEquals(6, placementState.nextSafeColumn(1, excluded, 6));
+        assertEquals(3, placementState.nextSafeColumn(1, excluded, 0));
+
+        BitBoard.set(excluded, 7);
+        assertEquals(3, placementState.nextSafeColumn(1, excluded, 7));
+
+        for (int column = 3; column < 7; column++)
+            BitBoard.set(excluded, column);
+        assertEquals(PlacementState.EMPTY, placementState.nextSafeColumn(1, excluded));
+        assertEquals(PlacementState.EMPTY, placementState.nextSafeColumn(1, excluded, 5));
+    }
+
+    @Test
+    public void earliestAttackersSkipQueensWithoutNewAttacks()
+    {
+        // Row 2 is attacked in columns 0, 2 and 4 by the queen of row 0,
+        // the queen of row 4 attacks columns 0 and 2 of row 2 only, which are already taken
+        PlacementState placementState = new PlacementState(5);
+        placementState.place(0, 2);
+        placementState.place(4, 0);
+
+        long[] attackers = placementState.getEarliestAttackers(2);
+        assertTrue(BitBoard.get(attackers, 0));
+        assertFalse(BitBoard.get(attackers, 4));
+        assertEquals(1, BitBoard.cardinality(attackers));
+    }
+
+    @Test
+    public void earliestAttackersCoverEveryUnsafeColumn()
+    {
+        int[] columns = { 1, 3, 5, PlacementState.EMPTY, PlacementState.EMPTY, 0, PlacementState.EMPTY, 6 };
+        PlacementState placementState = place(columns);
+
+        for (int row = 0; row < columns.length; row++)
+        {
+            long[] attackers = placementState.getEarliestAttackers(row);
+            int[] attackerColumns = columns.clone();
+            for (int r = 0; r < columns.length; r++)
+            {
+                if (!BitBoard.get(attackers, r))
+                    attackerColumns[r] = PlacementState.EMPTY;
+            }
+            attackerColumns[row] = PlacementState.EMPTY;
+
+            for (int column = 0; column < columns.length; column++)
+            {
+                int[] others = columns.clone();
+                others[row] = PlacementState.EMPTY;
+                assertEquals("row " + row + " column " + column,
+                        isSafeBruteForce(others, row, column), isSafeBruteForce(attackerColumns, row, column));
+            }
+        }
+    }
+
+    @Test
+    public void copyIsIndependent()
+    {
+        PlacementState placementState = new PlacementState(8);
+        placementState.place(0, 4);
+
+        PlacementState copy = new PlacementState(placementState);
+        copy.place(1, 0);
+        copy.remove(0);
+
+        assertEquals(4, placementState.getColumn(0));
+        assertFalse(placementState.isPlaced(1));
+        assertFalse(placementState.isSafe(7, 4));
+        assertTrue(copy.isSafe(7, 4));
+    }
+
+    private static int[] boardWithQueens(int n, int[] rows, int[] columns)
+    {
+        int[] board = new int[n];
+        Arrays.fill(board, PlacementState.EMPTY);
+        for (int i = 0; i < rows.length; i++)
+            board[rows[i]] = columns[i];
+
+        return board;
+    }
+
+    private static PlacementState place(int[] columns)
+    {
+        PlacementState placementState = new PlacementState(columns.length);
+        for (int row = 0; row < columns.length; row++)
+        {
+            if (columns[row] != PlacementState.EMPTY)
+                placementState.place(row, columns[row]);
+        }
+
+        return placementState;
+    }
+
+    /**
+     * Check a square against every queen, ignoring the queen of its own row
+     * */
+    static boolean isSafeBruteForce(int[] columns, int row, int column)
+    {
+        for (int r = 0; r < columns.length; r++)
+        {
+            int c = columns[r];
+            if (c == PlacementState.EMPTY || r == row)
+                continue;
+
+            if (c == column || Math.abs(c - column) == Math.abs(r - row))
+                return false;
+        }
+
+        return true;
+    }
+}
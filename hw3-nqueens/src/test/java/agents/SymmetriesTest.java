@@ -0,0 +1,129 @@
+package agents;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SymmetriesTest
+{
+    @Test
+    public void symmetriesOfASolutionAreSolutions()
+    {
+        Set<List<Integer>> solutions = toSet(findAllSolutions(8));
+        for (List<Integer> solution : solutions)
+        {
+            for (int[] symmetry : Symmetries.getSymmetries(toArray(solution)))
+                assertTrue(Arrays.toString(symmetry), solutions.contains(toList(symmetry)));
+        }
+    }
+
+    @Test
+    public void everyClassHasOneCanonicalSolution()
+    {
+        // 92 solutions in 12 classes for n = 8, 10 solutions in 2 classes for n = 5
+        assertCanonicalSolutions(8, 92, 12);
+        assertCanonicalSolutions(5, 10, 2);
+        assertCanonicalSolutions(6, 4, 1);
+    }
+
+    @Test
+    public void canonicalizeReturnsTheSmallestSymmetry()
+    {
+        for (int[] solution : findAllSolutions(8))
+        {
+            int[] canonical = Symmetries.canonicalize(solution);
+            assertTrue(Symmetries.isCanonical(canonical));
+            assertArrayEquals(canonical, Symmetries.canonicalize(Symmetries.mirror(solution)));
+
+            for (int[] symmetry : Symmetries.getSymmetries(solution))
+                assertArrayEquals(canonical, Symmetries.canonicalize(symmetry));
+        }
+    }
+
+    @Test
+    public void classSizeOfSymmetricSolutions()
+    {
+        // Symmetric under rotation by 90 degrees
+        assertEquals(2, Symmetries.getClassSize(new int[] { 1, 3, 0, 2 }));
+        // Symmetric under rotation by 180 degrees
+        assertEquals(4, Symmetries.getClassSize(new int[] { 1, 3, 5, 0, 2, 4 }));
+        assertEquals(8, Symmetries.getClassSize(new int[] { 0, 4, 7, 5, 2, 6, 1, 3 }));
+    }
+
+    private static void assertCanonicalSolutions(int n, int solutionCount, int classCount)
+    {
+        List<int[]> solutions = findAllSolutions(n);
+        assertEquals(solutionCount, solutions.size());
+
+        Set<List<Integer>> canonicalSolutions = new HashSet<>();
+        int classSizeSum = 0;
+        for (int[] solution : solutions)
+        {
+            canonicalSolutions.add(toList(Symmetries.canonicalize(solution)));
+            if (Symmetries.isCanonical(solution))
+                classSizeSum += Symmetries.getClassSize(solution);
+        }
+
+        assertEquals(classCount, canonicalSolutions.size());
+        assertEquals(solutionCount, classSizeSum);
+    }
+
+    private static List<int[]> findAllSolutions(int n)
+    {
+        List<int[]> solutions = new ArrayList<>();
+        findAllSolutions(new PlacementState(n), 0, solutions);
+        return solutions;
+    }
+
+    private static void findAllSolutions(PlacementState placementState, int row, List<int[]> solutions)
+    {
+        if (row == placementState.getN())
+        {
+            solutions.add(placementState.getColumns().clone());
+            return;
+        }
+
+        for (int column = 0; column < placementState.getN(); column++)
+        {
+            if (!placementState.isSafe(row, column))
+                continue;
+
+            placementState.place(row, column);
+            findAllSolutions(placementState, row + 1, solutions);
+            placementState.remove(row);
+        }
+    }
+
+    private static Set<List<Integer>> toSet(List<int[]> solutions)
+    {
+        Set<List<Integer>> set = new HashSet<>();
+        for (int[] solution : solutions)
+            set.add(toList(solution));
+
+        return set;
+    }
+
+    private static List<Integer> toList(int[] columns)
+    {
+        List<Integer> list = new ArrayList<>(columns.length);
+        for (int column : columns)
+            list.add(column);
+
+        return list;
+    }
+
+    private static int[] toArray(List<Integer> columns)
+    {
+        int[] array = new int[columns.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = columns.get(i);
+
+        return array;
+    }
+}
@@ -0,0 +1,126 @@
+package agents;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class WorkUnitTest
+{
+    @Test
+    public void splitWeightsSumToTheUnit()
+    {
+        for (int n = 1; n <= 9; n++)
+        {
+            WorkUnit root = new WorkUnit(new PlacementState(n), 0);
+            ArrayList<WorkUnit> parts = root.split();
+            assertEquals(n, parts.size());
+            assertEquals("n = " + n, weight(root), sumOfWeights(parts));
+        }
+    }
+
+    @Test
+    public void splitWeightsSumToTheUnitWhenTheCountIsNotAPowerOfTwo()
+    {
+        // The next row of a prefix of a 64 column board has 61 to 63 safe columns, none of them a power of two
+        for (int column = 0; column < 64; column++)
+        {
+            PlacementState prefix = new PlacementState(64);
+            prefix.place(0, column);
+
+            WorkUnit unit = new WorkUnit(prefix, 5);
+            ArrayList<WorkUnit> parts = unit.split();
+            assertEquals(BitBoard.cardinality(prefix.getSafeColumns(1)), parts.size());
+            assertEquals("column " + column, weight(unit), sumOfWeights(parts));
+        }
+    }
+
+    @Test
+    public void leavesOfTheFullTreeSumToOne()
+    {
+        // Every unit is split until it has no safe column left or is a full solution
+        ArrayList<WorkUnit> leaves = new ArrayList<>();
+        ArrayList<WorkUnit> pending = new ArrayList<>();
+        pending.add(new WorkUnit(new PlacementState(7), 0));
+        int solutionCount = 0;
+
+        while (!pending.isEmpty())
+        {
+            WorkUnit unit = pending.remove(pending.size() - 1);
+            if (unit.getRowCount() == 7)
+            {
+                leaves.add(unit);
+                solutionCount++;
+                continue;
+            }
+
+            ArrayList<WorkUnit> parts = unit.split();
+            if (parts.isEmpty())
+                leaves.add(unit);
+            else
+                pending.addAll(parts);
+        }
+
+        assertEquals(40, solutionCount);
+        assertEquals(weight(new WorkUnit(new PlacementState(7), 0)), sumOfWeights(leaves));
+    }
+
+    @Test
+    public void partsPlaceEachSafeColumnOfTheNextRow()
+    {
+        PlacementState prefix = new PlacementState(8);
+        prefix.place(0, 3);
+
+        ArrayList<WorkUnit> parts = new WorkUnit(prefix, 0).split();
+        long[] safeColumns = prefix.getSafeColumns(1);
+
+        int column = BitBoard.nextSetBit(safeColumns, 0);
+        for (WorkUnit part : parts)
+        {
+            assertArrayEquals(new int[] { 3, column }, part.getPrefixColumns());
+            column = BitBoard.nextSetBit(safeColumns, column + 1);
+        }
+        assertEquals(-1, column);
+    }
+
+    @Test
+    public void deadEndHasNoParts()
+    {
+        PlacementState prefix = new PlacementState(3);
+        prefix.place(0, 0);
+        prefix.place(1, 2);
+
+        assertTrue(new WorkUnit(prefix, 1).split().isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void splitBelowTheSmallestWeightIsRejected()
+    {
+        new WorkUnit(new PlacementState(4), WorkUnit.MAX_WEIGHT_EXPONENT).split();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeWeightExponentIsRejected()
+    {
+        new WorkUnit(new PlacementState(4), -1);
+    }
+
+    /**
+     * Weight of a unit in units of 2^-MAX_WEIGHT_EXPONENT, exact for any exponent
+     * */
+    private static BigInteger weight(WorkUnit unit)
+    {
+        return BigInteger.ONE.shiftLeft(WorkUnit.MAX_WEIGHT_EXPONENT - unit.getWeightExponent());
+    }
+
+    private static BigInteger sumOfWeights(ArrayList<WorkUnit> units)
+    {
+        BigInteger sum = BigInteger.ZERO;
+        for (WorkUnit unit : units)
+            sum = sum.add(weight(unit));
+
+        return sum;
+    }
+}